@@ -0,0 +1,45 @@
+package bot;
+
+import game.Board;
+
+/**
+ * Avaliação de referência: soma das distâncias de Chebyshev do oponente até o canto de destino menos as
+ * próprias, com bônus por peça já na base. Mantém a pontuação de cada jogador de forma incremental.
+ */
+public class DistanceEvaluator implements Evaluator {
+    static final int GOAL_BONUS = 4;
+
+    private final int[] scores = new int[3];
+
+    @Override
+    public void reset(Board board) {
+        for (int player = 1; player <= 2; player++) {
+            int total = 0;
+            for (long pieces = board.getPlayerBits(player); pieces != 0; pieces &= pieces - 1) {
+                total += value(Long.numberOfTrailingZeros(pieces), player);
+            }
+            scores[player] = total;
+        }
+    }
+
+    @Override
+    public void makeMove(int from, int to, int player) {
+        scores[player] += value(to, player) - value(from, player);
+    }
+
+    @Override
+    public void unmakeMove(int from, int to, int player) {
+        scores[player] -= value(to, player) - value(from, player);
+    }
+
+    @Override
+    public int evaluate(Board board, int side) {
+        return scores[side] - scores[3 - side];
+    }
+
+    // Valor de uma peça do jogador na casa: menos a distância ao destino, mais o bônus se já estiver na base
+    static int value(int square, int player) {
+        long goal = player == 1 ? Board.PLAYER2_CAMP : Board.PLAYER1_CAMP;
+        return GOAL_BONUS * (int) ((goal >>> square) & 1) - SearchEngine.distance(square, player);
+    }
+}
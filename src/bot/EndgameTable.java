@@ -0,0 +1,136 @@
+package bot;
+
+import game.Board;
+import game.BoardSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de finais por análise retrógrada: para cada posição em que até {@link #MAX_STRAGGLERS} peças do jogador
+ * estão fora da base de destino (e as demais dentro dela), guarda quantos turnos faltam para completar a base.
+ * <p>
+ * Simplificação: a tabela considera só as peças do jogador, como se o oponente não estivesse no tabuleiro. Sem
+ * o oponente, passos e sequências de pulos são reversíveis, então a análise retrógrada é uma busca em largura a
+ * partir da base completa. No jogo real as peças do oponente podem bloquear ou abrir pulos; por isso a tabela só
+ * é usada para escolher entre as jogadas legais da posição real, e a distância é uma estimativa.
+ * <p>
+ * A tabela é construída para o jogador 1 e vale para o jogador 2 pela rotação de 180 graus do tabuleiro (as bases
+ * são simétricas). É calculada na primeira consulta (algumas centenas de milissegundos) e compartilhada por todas as
+ * threads.
+ */
+public final class EndgameTable {
+    public static final int MAX_STRAGGLERS = 2;
+    private static final long GOAL = Board.PLAYER2_CAMP;
+
+    // Posições do jogador 1 ordenadas, e a distância de cada uma em turnos (-1 se a base não é alcançável)
+    private final long[] states;
+    private final byte[] distances;
+
+    private static final class Holder {
+        static final EndgameTable INSTANCE = new EndgameTable();
+    }
+
+    /**
+     * @return A tabela compartilhada, calculada na primeira chamada
+     */
+    public static EndgameTable get() {
+        return Holder.INSTANCE;
+    }
+
+    private EndgameTable() {
+        states = enumerateStates();
+        distances = new byte[states.length];
+        Arrays.fill(distances, (byte) -1);
+        retrogradeSearch();
+    }
+
+    /**
+     * @param ownBits Bitboard das peças do jogador
+     * @return Se a posição das peças do jogador está coberta pela tabela
+     */
+    public static boolean applies(long ownBits, int player) {
+        long goal = player == 1 ? GOAL : Board.PLAYER1_CAMP;
+        return Long.bitCount(ownBits & ~goal) <= MAX_STRAGGLERS;
+    }
+
+    /**
+     * @param ownBits Bitboard das peças do jogador
+     * @return Turnos até completar a base, ignorando o oponente; -1 se a posição não está na tabela
+     */
+    public int distance(long ownBits, int player) {
+        long bits = player == 1 ? ownBits : Long.reverse(ownBits);
+        int index = Arrays.binarySearch(states, bits);
+        return index < 0 ? -1 : distances[index];
+    }
+
+    public int size() {
+        return states.length;
+    }
+
+    // Base completa menos k casas vazias, mais k peças fora dela, para k de 0 a MAX_STRAGGLERS
+    private static long[] enumerateStates() {
+        int[] goalSquares = squares(GOAL);
+        int[] outsideSquares = squares(~GOAL);
+
+        long[] result = new long[countStates(goalSquares.length, outsideSquares.length)];
+        int count = 0;
+        result[count++] = GOAL;
+        for (int a = 0; a < goalSquares.length; a++) {
+            long oneEmpty = GOAL & ~(1L << goalSquares[a]);
+            for (int x = 0; x < outsideSquares.length; x++) {
+                result[count++] = oneEmpty | (1L << outsideSquares[x]);
+            }
+            for (int b = a + 1; b < goalSquares.length; b++) {
+                long twoEmpty = oneEmpty & ~(1L << goalSquares[b]);
+                for (int x = 0; x < outsideSquares.length; x++) {
+                    for (int y = x + 1; y < outsideSquares.length; y++) {
+                        result[count++] = twoEmpty | (1L << outsideSquares[x]) | (1L << outsideSquares[y]);
+                    }
+                }
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int countStates(int goal, int outside) {
+        return 1 + goal * outside + goal * (goal - 1) / 2 * (outside * (outside - 1) / 2);
+    }
+
+    private static int[] squares(long bits) {
+        int[] result = new int[Long.bitCount(bits)];
+        for (int i = 0; bits != 0; bits &= bits - 1) {
+            result[i++] = Long.numberOfTrailingZeros(bits);
+        }
+        return result;
+    }
+
+    // Busca em largura a partir da base completa; sem o oponente o grafo de jogadas é não direcionado
+    private void retrogradeSearch() {
+        int[] queue = new int[states.length];
+        int head = 0;
+        int tail = 0;
+        int goalIndex = Arrays.binarySearch(states, GOAL);
+        distances[goalIndex] = 0;
+        queue[tail++] = goalIndex;
+
+        Board board = new Board();
+        while (head < tail) {
+            int index = queue[head++];
+            long bits = states[index];
+            board.load(new BoardSnapshot(bits, 0, 1));
+            for (long pieces = bits; pieces != 0; pieces &= pieces - 1) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                long targets = board.getDirectTargets(from, false) | board.getChainLandings(from);
+                for (; targets != 0; targets &= targets - 1) {
+                    long next = bits ^ (1L << from) ^ (1L << Long.numberOfTrailingZeros(targets));
+                    int nextIndex = Arrays.binarySearch(states, next);
+                    if (nextIndex >= 0 && distances[nextIndex] < 0) {
+                        distances[nextIndex] = (byte) (distances[index] + 1);
+                        queue[tail++] = nextIndex;
+                    }
+                }
+            }
+        }
+    }
+}
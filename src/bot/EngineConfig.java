@@ -0,0 +1,73 @@
+package bot;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Configuração de um {@link SearchEngine}: nome usado nos relatórios, profundidade da busca em jogadas completas,
+ * ruído adicionado à avaliação das jogadas da raiz (para variar as partidas entre motores determinísticos) e a
+ * função de avaliação: {@link DistanceEvaluator}, ou {@link PatternEvaluator} se houver pesos.
+ */
+public final class EngineConfig {
+    private final String name;
+    private final int depth;
+    private final int noise;
+    private final PatternWeights weights;
+
+    public EngineConfig(String name, int depth, int noise) {
+        this(name, depth, noise, null);
+    }
+
+    /**
+     * @param weights Pesos do {@link PatternEvaluator}, ou null para a {@link DistanceEvaluator}
+     */
+    public EngineConfig(String name, int depth, int noise, PatternWeights weights) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Profundidade deve ser pelo menos 1: " + depth);
+        }
+        this.name = name;
+        this.depth = depth;
+        this.noise = noise;
+        this.weights = weights;
+    }
+
+    /**
+     * Lê uma configuração no formato {@code nome:profundidade[:ruído[:arquivoDePesos]]}, por exemplo
+     * {@code forte:3:2} ou {@code treinado:3:20:pesos.txt}.
+     * @throws IOException Se o arquivo de pesos não puder ser lido
+     */
+    public static EngineConfig parse(String spec) throws IOException {
+        String[] fields = spec.split(":", 4);
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Motor deve ser nome:profundidade[:ruído[:arquivoDePesos]]: " + spec);
+        }
+        int noise = fields.length > 2 ? Integer.parseInt(fields[2]) : 0;
+        PatternWeights weights = fields.length > 3 ? PatternWeights.load(Paths.get(fields[3])) : null;
+        return new EngineConfig(fields[0], Integer.parseInt(fields[1]), noise, weights);
+    }
+
+    /**
+     * @return Uma nova instância da função de avaliação, para um motor
+     */
+    public Evaluator newEvaluator() {
+        return weights != null ? new PatternEvaluator(weights) : new DistanceEvaluator();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getNoise() {
+        return noise;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (profundidade " + depth + (noise > 0 ? ", ruído " + noise : "")
+                + (weights != null ? ", padrões" : "") + ")";
+    }
+}
@@ -0,0 +1,43 @@
+package bot;
+
+import game.Board;
+
+/**
+ * Função de avaliação usada pelo {@link SearchEngine}. As implementações podem manter estado incremental: a
+ * busca chama {@link #reset} na raiz e {@link #makeMove}/{@link #unmakeMove} a cada jogada completa, na mesma
+ * ordem do make/unmake do {@link Board}. Não precisa ser thread-safe: cada motor tem a sua instância.
+ */
+public interface Evaluator {
+
+    /**
+     * Recalcula o estado incremental a partir da posição, no início de cada busca.
+     */
+    void reset(Board board);
+
+    void makeMove(int from, int to, int player);
+
+    void unmakeMove(int from, int to, int player);
+
+    /**
+     * @return A avaliação do ponto de vista do jogador da vez (positivo é bom para ele)
+     */
+    int evaluate(Board board, int side);
+
+    /**
+     * Avalia em lote as posições resultantes de cada jogada, nos nós da fronteira da busca. A pontuação de cada
+     * jogada é do ponto de vista de quem a faz. A implementação padrão faz make, avaliação e unmake para cada
+     * jogada; implementações incrementais podem calcular todas de uma vez.
+     */
+    default void evaluateMoves(Board board, int side, int[] moves, int count, int[] scores) {
+        for (int i = 0; i < count; i++) {
+            int from = moves[i] & 0x3F;
+            int to = moves[i] >>> 6;
+            int undoDepth = board.getUndoDepth();
+            SearchEngine.play(board, moves[i]);
+            makeMove(from, to, side);
+            scores[i] = -evaluate(board, 3 - side);
+            unmakeMove(from, to, side);
+            SearchEngine.undo(board, undoDepth);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package bot;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Arquivo de partidas de autojogo usado no treino: uma linha por partida, com o vencedor (0 para empate) seguido
+ * das jogadas completas no formato {@code origem-destino} (índices de casa). As partidas são acrescentadas ao fim
+ * do arquivo, então vários torneios podem alimentar o mesmo arquivo.
+ */
+public class GameArchive implements Closeable {
+    private final BufferedWriter out;
+
+    public GameArchive(Path path) throws IOException {
+        this.out = Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Grava uma partida. Pode ser chamado por várias threads.
+     */
+    public synchronized void append(int winner, int[] moves, int count) throws IOException {
+        StringBuilder line = new StringBuilder().append(winner);
+        for (int i = 0; i < count; i++) {
+            line.append(' ').append(moves[i] & 0x3F).append('-').append(moves[i] >>> 6);
+        }
+        out.write(line.append('\n').toString());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Lê uma linha do arquivo.
+     * @return O vencedor na posição 0, seguido das jogadas no formato de {@link SearchEngine}
+     */
+    static int[] parse(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        int[] game = new int[tokens.length];
+        game[0] = Integer.parseInt(tokens[0]);
+        for (int i = 1; i < tokens.length; i++) {
+            int dash = tokens[i].indexOf('-');
+            game[i] = Integer.parseInt(tokens[i].substring(0, dash)) | (Integer.parseInt(tokens[i].substring(dash + 1)) << 6);
+        }
+        return game;
+    }
+}
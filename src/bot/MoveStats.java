@@ -0,0 +1,75 @@
+package bot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tempos por jogada de um motor, somados por várias threads sem bloqueio. Os percentis vêm de um histograma
+ * em potências de 2 de microssegundos, então são aproximados (limite superior do intervalo).
+ */
+public class MoveStats {
+    private static final int BUCKETS = 40;
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    // Intervalo i: tempos com 2^(i-1) <= microssegundos < 2^i
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        moves.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        long micros = nanos / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        histogram.incrementAndGet(bucket);
+    }
+
+    public void addNodes(long count) {
+        nodes.add(count);
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public double getMeanMicros() {
+        long count = moves.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1000.0 / count;
+    }
+
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    /**
+     * @return Nós por segundo de tempo de busca
+     */
+    public double getNodesPerSecond() {
+        long nanos = totalNanos.sum();
+        return nanos == 0 ? 0 : nodes.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * @param fraction Entre 0 e 1, por exemplo 0.99
+     * @return Limite superior aproximado, em microssegundos, do percentil informado
+     */
+    public long getPercentileMicros(double fraction) {
+        long total = moves.sum();
+        long threshold = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= threshold && seen > 0) {
+                return 1L << i;
+            }
+        }
+        return 0;
+    }
+}
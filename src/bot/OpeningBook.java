@@ -0,0 +1,118 @@
+package bot;
+
+import game.Board;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.BufferedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Livro de aberturas em arquivo mapeado em memória: registros {@code (chave, jogada)} ordenados pela chave, onde
+ * a chave é o hash de Zobrist da posição combinado com o jogador da vez. A consulta é uma busca binária direto
+ * no arquivo mapeado, sem carregar nem decodificar o livro; o mapeamento só é feito na primeira consulta.
+ * <p>
+ * Formato: cabeçalho com {@link #MAGIC} e a quantidade de registros (dois {@code int}), seguido dos registros de
+ * 12 bytes ({@code long} chave, {@code int} jogada no formato de {@link SearchEngine}).
+ */
+public class OpeningBook {
+    static final int MAGIC = 0x48424B31; // "HBK1"
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 12;
+    // O hash de Board não inclui o jogador da vez; esta chave distingue as posições com o jogador 2 na vez
+    private static final long SIDE_TO_MOVE_KEY = 0x9E3779B97F4A7C15L;
+
+    private final Path path;
+    private volatile ByteBuffer records;
+    private int count;
+
+    public OpeningBook(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Chave do livro para a posição atual com o jogador informado na vez.
+     */
+    public static long key(Board board, int player) {
+        return player == 2 ? board.getHash() ^ SIDE_TO_MOVE_KEY : board.getHash();
+    }
+
+    /**
+     * Consulta a jogada do livro para a posição.
+     * @return A jogada codificada, ou {@link SearchEngine#NO_MOVE} se a posição não estiver no livro
+     * @throws IOException Se o arquivo não puder ser mapeado na primeira consulta
+     */
+    public int probe(Board board, int player) throws IOException {
+        ByteBuffer buffer = records();
+        long key = key(board, player);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = buffer.getLong(HEADER_BYTES + mid * RECORD_BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(HEADER_BYTES + mid * RECORD_BYTES + 8);
+            }
+        }
+        return SearchEngine.NO_MOVE;
+    }
+
+    /**
+     * @return Quantidade de posições no livro (mapeia o arquivo se ainda não foi mapeado)
+     */
+    public int size() throws IOException {
+        records();
+        return count;
+    }
+
+    // Mapeia o arquivo na primeira consulta; as leituras absolutas do buffer podem ser feitas por várias threads
+    private ByteBuffer records() throws IOException {
+        ByteBuffer buffer = records;
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = records;
+                if (buffer == null) {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        long size = channel.size();
+                        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                        if (size < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                            throw new IOException("Arquivo não é um livro de aberturas: " + path);
+                        }
+                        int records = mapped.getInt(4);
+                        // Um livro truncado falharia no meio da busca, fora do tratamento de IOException
+                        if (records < 0 || HEADER_BYTES + (long) records * RECORD_BYTES > size) {
+                            throw new IOException("Livro de aberturas truncado ou corrompido: " + path);
+                        }
+                        count = records;
+                        buffer = mapped;
+                    }
+                    records = buffer;
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Grava um livro a partir de chaves já ordenadas e sem repetição.
+     */
+    static void write(Path path, long[] keys, int[] moves, int count) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(keys[i]);
+                out.writeInt(moves[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package bot;
+
+import game.Board;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gera o {@link OpeningBook} a partir da posição inicial: percorre todas as posições alcançáveis com até
+ * {@code plies} jogadas e grava, para cada uma, a melhor jogada encontrada pela busca na profundidade pedida.
+ * <p>
+ * Uso: {@code OpeningBookGenerator arquivo [jogadas=2] [profundidade=3]}
+ */
+public class OpeningBookGenerator {
+    private final SearchEngine engine;
+    private final int plies;
+    private final Map<Long, Integer> bestMoves = new HashMap<>();
+    // Menor número de jogadas com que cada posição foi alcançada: uma transposição mais curta ainda precisa ser
+    // expandida, pois a primeira visita pode ter parado no limite de jogadas
+    private final Map<Long, Integer> shallowestPly = new HashMap<>();
+
+    public OpeningBookGenerator(int plies, int depth) {
+        this.engine = new SearchEngine(new EngineConfig("livro", depth, 0), 0);
+        this.plies = plies;
+    }
+
+    /**
+     * Percorre a árvore de aberturas e grava o livro.
+     * @return Quantidade de posições gravadas
+     */
+    public int generate(Path output) throws IOException {
+        visit(new Board(), 1, 0);
+
+        long[] keys = new long[bestMoves.size()];
+        int i = 0;
+        for (long key : bestMoves.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        int[] moves = new int[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            moves[i] = bestMoves.get(keys[i]);
+        }
+        OpeningBook.write(output, keys, moves, keys.length);
+        return keys.length;
+    }
+
+    private void visit(Board board, int side, int ply) {
+        long key = OpeningBook.key(board, side);
+        Integer seenAt = shallowestPly.get(key);
+        if (seenAt != null && seenAt <= ply) {
+            return; // Transposição já expandida a partir desta profundidade ou de uma menor
+        }
+        shallowestPly.put(key, ply);
+        if (seenAt == null) {
+            int best = engine.findMove(board, side);
+            if (best == SearchEngine.NO_MOVE) {
+                return;
+            }
+            bestMoves.put(key, best);
+        }
+        if (ply >= plies) {
+            return;
+        }
+
+        // Todas as respostas possíveis são expandidas: o oponente pode jogar qualquer coisa
+        int[] moves = engine.legalMoves(board, side);
+        for (int move : moves) {
+            int undoDepth = board.getUndoDepth();
+            SearchEngine.play(board, move);
+            visit(board, 3 - side, ply + 1);
+            SearchEngine.undo(board, undoDepth);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: OpeningBookGenerator arquivo [jogadas=2] [profundidade=3]");
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        long start = System.nanoTime();
+        int positions = new OpeningBookGenerator(plies, depth).generate(output);
+        System.out.printf("%d posições gravadas em %s (%.1f s)%n", positions, output, (System.nanoTime() - start) / 1e9);
+    }
+}
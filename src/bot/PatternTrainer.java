@@ -0,0 +1,155 @@
+package bot;
+
+import game.Board;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Treina os pesos do {@link PatternEvaluator} a partir de arquivos de autojogo ({@link GameArchive}). Cada
+ * posição das partidas vira um exemplo com o resultado final do ponto de vista do jogador da vez (1, 0.5 ou 0),
+ * e os pesos são ajustados por regressão logística com descida de gradiente estocástica, partindo dos pesos
+ * equivalentes à {@link DistanceEvaluator}.
+ * <p>
+ * Uso: {@code PatternTrainer saida.txt arquivo... [--epochs N] [--rate R]}
+ */
+public class PatternTrainer {
+    // Converte a avaliação (pesos * 9 por peça) em probabilidade de vitória
+    private static final double SIGMOID_SCALE = 400.0;
+
+    private final double[] open = new double[Board.SQUARES];
+    private final double[] end = new double[Board.SQUARES];
+    private final double[] featureOpen = new double[Board.SQUARES];
+    private final double[] featureEnd = new double[Board.SQUARES];
+    private final double rate;
+    private double lossSum;
+    private long examples;
+
+    public PatternTrainer(PatternWeights initial, double rate) {
+        int[] initialOpen = initial.openTable(1);
+        int[] initialEnd = initial.endTable(1);
+        for (int i = 0; i < Board.SQUARES; i++) {
+            open[i] = initialOpen[i];
+            end[i] = initialEnd[i];
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Uma passada por todas as partidas dos arquivos, lidas em fluxo.
+     * @return Perda logística média da passada
+     */
+    public double trainEpoch(List<Path> archives) throws IOException {
+        lossSum = 0;
+        examples = 0;
+        for (Path archive : archives) {
+            try (Stream<String> lines = Files.lines(archive)) {
+                lines.filter(line -> !line.isBlank()).forEach(line -> trainGame(GameArchive.parse(line)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return examples == 0 ? 0 : lossSum / examples;
+    }
+
+    private void trainGame(int[] game) {
+        int winner = game[0];
+        Board board = new Board();
+        int side = 1;
+        for (int i = 1; i < game.length; i++) {
+            double target = winner == 0 ? 0.5 : (winner == side ? 1.0 : 0.0);
+            trainPosition(board, side, target);
+
+            int from = game[i] & 0x3F;
+            int to = game[i] >>> 6;
+            board.performMove(from / Board.SIZE, from % Board.SIZE, to / Board.SIZE, to % Board.SIZE);
+            side = 3 - side;
+        }
+    }
+
+    // Atributos do ponto de vista do jogador da vez, com o mesmo peso de abertura/final do PatternEvaluator
+    private void trainPosition(Board board, int side, double target) {
+        Arrays.fill(featureOpen, 0);
+        Arrays.fill(featureEnd, 0);
+        addFeatures(board, side, 1);
+        addFeatures(board, 3 - side, -1);
+
+        double eval = 0;
+        for (int i = 0; i < Board.SQUARES; i++) {
+            eval += open[i] * featureOpen[i] + end[i] * featureEnd[i];
+        }
+        double prediction = 1 / (1 + Math.exp(-eval / SIGMOID_SCALE));
+        double clipped = Math.min(1 - 1e-9, Math.max(1e-9, prediction));
+        lossSum += -(target * Math.log(clipped) + (1 - target) * Math.log(1 - clipped));
+        examples++;
+
+        double gradient = rate * (prediction - target) / SIGMOID_SCALE;
+        for (int i = 0; i < Board.SQUARES; i++) {
+            open[i] -= gradient * featureOpen[i];
+            end[i] -= gradient * featureEnd[i];
+        }
+    }
+
+    private void addFeatures(Board board, int player, int sign) {
+        int g = board.getGoalCount(player);
+        for (long pieces = board.getPlayerBits(player); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            // Tabelas na orientação do jogador 1
+            int oriented = player == 1 ? square : Board.SQUARES - 1 - square;
+            featureOpen[oriented] += sign * (PatternEvaluator.GOAL_SQUARES - g);
+            featureEnd[oriented] += sign * g;
+        }
+    }
+
+    /**
+     * @return Os pesos atuais, arredondados para inteiros
+     */
+    public PatternWeights toWeights() {
+        int[] roundedOpen = new int[Board.SQUARES];
+        int[] roundedEnd = new int[Board.SQUARES];
+        for (int i = 0; i < Board.SQUARES; i++) {
+            roundedOpen[i] = (int) Math.round(open[i]);
+            roundedEnd[i] = (int) Math.round(end[i]);
+        }
+        return new PatternWeights(roundedOpen, roundedEnd);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int epochs = 5;
+        double rate = 1.0;
+        Path output = null;
+        List<Path> archives = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--epochs": epochs = Integer.parseInt(args[++i]); break;
+                case "--rate": rate = Double.parseDouble(args[++i]); break;
+                default:
+                    if (output == null) {
+                        output = Paths.get(args[i]);
+                    } else {
+                        archives.add(Paths.get(args[i]));
+                    }
+                    break;
+            }
+        }
+        if (output == null || archives.isEmpty()) {
+            System.err.println("Uso: PatternTrainer saida.txt arquivo... [--epochs N] [--rate R]");
+            return;
+        }
+
+        PatternTrainer trainer = new PatternTrainer(PatternWeights.distanceBaseline(), rate);
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double loss = trainer.trainEpoch(archives);
+            System.out.printf("Época %d: perda %.4f em %d posições%n", epoch, loss, trainer.examples);
+        }
+        trainer.toWeights().save(output);
+        System.out.println("Pesos gravados em " + output);
+    }
+}
@@ -0,0 +1,106 @@
+package bot;
+
+import game.Board;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pesos do {@link PatternEvaluator}: duas tabelas casa a casa, uma para a abertura e outra para o final, na
+ * orientação do jogador 1 (o jogador 2 usa a casa espelhada, {@code 63 - casa}). Imutável; uma instância pode ser
+ * compartilhada por todos os motores.
+ * <p>
+ * Arquivo de texto com os 64 pesos da abertura seguidos dos 64 do final; linhas iniciadas por {@code #} são
+ * comentários.
+ */
+public final class PatternWeights {
+    // Escala dos pesos iniciais em relação à DistanceEvaluator, para o treino ter resolução
+    static final int BASELINE_SCALE = 10;
+
+    private final int[] open;
+    private final int[] end;
+
+    PatternWeights(int[] open, int[] end) {
+        this.open = open.clone();
+        this.end = end.clone();
+    }
+
+    /**
+     * Pesos equivalentes à {@link DistanceEvaluator}, ponto de partida do treino.
+     */
+    public static PatternWeights distanceBaseline() {
+        int[] table = new int[Board.SQUARES];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            table[square] = BASELINE_SCALE * DistanceEvaluator.value(square, 1);
+        }
+        return new PatternWeights(table, table);
+    }
+
+    public static PatternWeights load(Path path) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            for (String token : trimmed.split("\\s+")) {
+                values.add(Integer.parseInt(token));
+            }
+        }
+        if (values.size() != 2 * Board.SQUARES) {
+            throw new IOException("Esperados " + 2 * Board.SQUARES + " pesos em " + path + ", encontrados " + values.size());
+        }
+        int[] open = new int[Board.SQUARES];
+        int[] end = new int[Board.SQUARES];
+        for (int i = 0; i < Board.SQUARES; i++) {
+            open[i] = values.get(i);
+            end[i] = values.get(Board.SQUARES + i);
+        }
+        return new PatternWeights(open, end);
+    }
+
+    public void save(Path path) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write("# Pesos do PatternEvaluator (orientação do jogador 1)\n# Abertura\n");
+            writeTable(out, open);
+            out.write("# Final\n");
+            writeTable(out, end);
+        }
+    }
+
+    private static void writeTable(BufferedWriter out, int[] table) throws IOException {
+        for (int row = 0; row < Board.SIZE; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = 0; col < Board.SIZE; col++) {
+                line.append(col == 0 ? "" : " ").append(table[row * Board.SIZE + col]);
+            }
+            out.write(line.append('\n').toString());
+        }
+    }
+
+    /**
+     * @return Tabela da abertura na orientação do jogador informado
+     */
+    int[] openTable(int player) {
+        return oriented(open, player);
+    }
+
+    int[] endTable(int player) {
+        return oriented(end, player);
+    }
+
+    private static int[] oriented(int[] table, int player) {
+        if (player == 1) {
+            return table.clone();
+        }
+        int[] mirrored = new int[Board.SQUARES];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            mirrored[square] = table[Board.SQUARES - 1 - square];
+        }
+        return mirrored;
+    }
+}
@@ -0,0 +1,306 @@
+package bot;
+
+import game.Board;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Busca alfa-beta (negamax) sobre {@link Board} usando make/unmake, sem alocar durante a busca.
+ * <p>
+ * Cada jogada da busca é uma jogada completa de turno: um passo, ou o pouso final de uma sequência de pulos
+ * ({@link Board#getChainLandings}). As jogadas são codificadas como {@code origem | (destino << 6)}; para enviar
+ * uma sequência ao servidor pulo a pulo, use {@link Board#getJumpPath}.
+ * A avaliação vem do {@link Evaluator} da configuração, atualizado de forma incremental a cada make/unmake; nos nós
+ * da fronteira (profundidade 1) as jogadas são avaliadas em lote com {@link Evaluator#evaluateMoves}.
+ * Antes de buscar, consulta o {@link OpeningBook} e a {@link EndgameTable}, se configurados.
+ * Não é thread-safe: use uma instância por partida.
+ */
+public class SearchEngine {
+    public static final int NO_MOVE = -1;
+    static final int WIN_SCORE = 1_000_000;
+    private static final int MAX_PLY = 32;
+    // Uma peça tem no máximo 63 destinos
+    static final int MAX_MOVES = 9 * (Board.SQUARES - 1);
+
+    private final EngineConfig config;
+    private final SplittableRandom random;
+    private final int[][] moves = new int[MAX_PLY][MAX_MOVES];
+    private final int[][] keys = new int[MAX_PLY][MAX_MOVES];
+    private final int[] frontierScores = new int[MAX_MOVES];
+    private final Evaluator evaluator;
+    private long nodes;
+    private OpeningBook openingBook;
+    private EndgameTable endgameTable;
+    private long bookHits;
+    private long tableHits;
+
+    public SearchEngine(EngineConfig config, long seed) {
+        if (config.getDepth() >= MAX_PLY) {
+            throw new IllegalArgumentException("Profundidade máxima é " + (MAX_PLY - 1));
+        }
+        this.config = config;
+        this.random = new SplittableRandom(seed);
+        this.evaluator = config.newEvaluator();
+    }
+
+    public EngineConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Livro consultado antes da busca; pode ser compartilhado entre motores de várias threads.
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Tabela de finais consultada quando restam poucas peças fora da base de destino.
+     */
+    public void setEndgameTable(EndgameTable endgameTable) {
+        this.endgameTable = endgameTable;
+    }
+
+    public long getBookHits() {
+        return bookHits;
+    }
+
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * @return Posições visitadas desde a criação do motor
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Escolhe a jogada do jogador na posição atual. O tabuleiro é restaurado antes de retornar.
+     * @return A jogada codificada, ou {@link #NO_MOVE} se o jogador não tiver jogadas
+     */
+    public int findMove(Board board, int player) {
+        int count = generateMoves(board, player, 0);
+        if (count == 0) {
+            return NO_MOVE;
+        }
+        int known = probeBook(board, player, count);
+        if (known == NO_MOVE) {
+            known = probeEndgameTable(board, player, count);
+        }
+        if (known != NO_MOVE) {
+            return known;
+        }
+        evaluator.reset(board);
+
+        int bestMove = NO_MOVE;
+        int bestScore = Integer.MIN_VALUE;
+        int alpha = -WIN_SCORE - 1;
+        for (int i = 0; i < count; i++) {
+            int move = moves[0][i];
+            int undoDepth = board.getUndoDepth();
+            play(board, move, player);
+            int score = -search(board, 3 - player, config.getDepth() - 1, -WIN_SCORE - 1, -alpha + config.getNoise(), 1);
+            undo(board, move, player, undoDepth);
+
+            // O ruído só desempata jogadas próximas; vitórias e derrotas forçadas não são afetadas
+            if (config.getNoise() > 0 && Math.abs(score) < WIN_SCORE - MAX_PLY) {
+                score += random.nextInt(config.getNoise() + 1);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        return bestMove;
+    }
+
+    // Jogada do livro, se a posição estiver nele e a jogada for legal (o livro pode ser de outra versão)
+    private int probeBook(Board board, int player, int count) {
+        if (openingBook == null) {
+            return NO_MOVE;
+        }
+        int move;
+        try {
+            move = openingBook.probe(board, player);
+        } catch (IOException e) {
+            System.err.println("Livro de aberturas indisponível: " + e.getMessage());
+            openingBook = null;
+            return NO_MOVE;
+        }
+        for (int i = 0; i < count && move != NO_MOVE; i++) {
+            if (moves[0][i] == move) {
+                bookHits++;
+                return move;
+            }
+        }
+        return NO_MOVE;
+    }
+
+    // Entre as jogadas legais, a que deixa as peças do jogador mais perto de completar a base segundo a tabela
+    private int probeEndgameTable(Board board, int player, int count) {
+        long own = board.getPlayerBits(player);
+        if (endgameTable == null || !EndgameTable.applies(own, player)) {
+            return NO_MOVE;
+        }
+        int bestMove = NO_MOVE;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[0][i];
+            int distance = endgameTable.distance(own ^ (1L << (move & 0x3F)) ^ (1L << (move >>> 6)), player);
+            if (distance >= 0 && distance < bestDistance) {
+                bestDistance = distance;
+                bestMove = move;
+            }
+        }
+        if (bestMove != NO_MOVE) {
+            tableHits++;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Sorteia uma jogada qualquer do jogador, usada para variar as aberturas de torneios.
+     * @return A jogada codificada, ou {@link #NO_MOVE} se o jogador não tiver jogadas
+     */
+    public int randomMove(Board board, int player) {
+        int count = generateMoves(board, player, 0);
+        return count == 0 ? NO_MOVE : moves[0][random.nextInt(count)];
+    }
+
+    /**
+     * @return Todas as jogadas completas do jogador, na ordem usada pela busca
+     */
+    public int[] legalMoves(Board board, int player) {
+        return Arrays.copyOf(moves[0], generateMoves(board, player, 0));
+    }
+
+    private int search(Board board, int side, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if (board.checkForWinner(3 - side)) {
+            return -(WIN_SCORE - ply);
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(board, side);
+        }
+        int count = generateMoves(board, side, ply);
+        if (count == 0) {
+            return evaluator.evaluate(board, side);
+        }
+        if (depth == 1) {
+            return evaluateFrontier(board, side, ply, count);
+        }
+
+        int best = -WIN_SCORE - 1;
+        int[] plyMoves = moves[ply];
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            int undoDepth = board.getUndoDepth();
+            play(board, move, side);
+            int score = -search(board, 3 - side, depth - 1, -beta, -alpha, ply + 1);
+            undo(board, move, side, undoDepth);
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Último nível da busca: avalia todas as jogadas em lote em vez de visitar cada filho. Equivale a buscar os
+     * filhos com profundidade 0, incluindo a detecção de vitória de quem joga.
+     */
+    private int evaluateFrontier(Board board, int side, int ply, int count) {
+        int[] plyMoves = moves[ply];
+        nodes += count;
+        long goalMask = side == 1 ? Board.PLAYER2_CAMP : Board.PLAYER1_CAMP;
+        int goalCount = board.getGoalCount(side);
+        for (int i = 0; i < count; i++) {
+            int from = plyMoves[i] & 0x3F;
+            int to = plyMoves[i] >>> 6;
+            if (goalCount + (int) ((goalMask >>> to) & 1) - (int) ((goalMask >>> from) & 1) == Long.bitCount(goalMask)) {
+                return WIN_SCORE - (ply + 1);
+            }
+        }
+
+        evaluator.evaluateMoves(board, side, plyMoves, count, frontierScores);
+        int best = -WIN_SCORE - 1;
+        for (int i = 0; i < count; i++) {
+            best = Math.max(best, frontierScores[i]);
+        }
+        return best;
+    }
+
+    private void play(Board board, int move, int side) {
+        play(board, move);
+        evaluator.makeMove(move & 0x3F, move >>> 6, side);
+    }
+
+    private void undo(Board board, int move, int side, int undoDepth) {
+        undo(board, undoDepth);
+        evaluator.unmakeMove(move & 0x3F, move >>> 6, side);
+    }
+
+    // Aplica uma jogada completa; uma sequência de pulos é encerrada para o turno passar ao oponente
+    static void play(Board board, int move) {
+        board.makeMove(move & 0x3F, move >>> 6);
+        if (board.getChainSquare() >= 0) {
+            board.makeEndChain();
+        }
+    }
+
+    static void undo(Board board, int undoDepth) {
+        while (board.getUndoDepth() > undoDepth) {
+            board.unmakeMove();
+        }
+    }
+
+    /**
+     * Gera as jogadas do jogador em {@code moves[ply]}, ordenadas pelo avanço em direção ao destino.
+     * @return Quantidade de jogadas
+     */
+    private int generateMoves(Board board, int player, int ply) {
+        int[] plyMoves = moves[ply];
+        int[] plyKeys = keys[ply];
+        int count = 0;
+        for (long pieces = board.getPlayerBits(player); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long targets = board.getDirectTargets(from, false) | board.getChainLandings(from);
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                int key = distance(from, player) - distance(to, player);
+                // Inserção ordenada: as listas são curtas e quase ordenadas
+                int i = count++;
+                while (i > 0 && plyKeys[i - 1] < key) {
+                    plyMoves[i] = plyMoves[i - 1];
+                    plyKeys[i] = plyKeys[i - 1];
+                    i--;
+                }
+                plyMoves[i] = from | (to << 6);
+                plyKeys[i] = key;
+            }
+        }
+        return count;
+    }
+
+    // Distância de Chebyshev até o canto de destino: (7, 7) para o jogador 1 e (0, 0) para o jogador 2
+    static int distance(int square, int player) {
+        int row = square / Board.SIZE;
+        int col = square % Board.SIZE;
+        if (player == 1) {
+            return Math.max(Board.SIZE - 1 - row, Board.SIZE - 1 - col);
+        }
+        return Math.max(row, col);
+    }
+}
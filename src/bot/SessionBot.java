@@ -0,0 +1,150 @@
+package bot;
+
+import game.Board;
+import server.LocalClientHandler;
+import server.Session;
+import shared.Protocol;
+
+/**
+ * Bot que joga uma {@link Session} pelo protocolo de texto, como um cliente de rede, mas lendo as mensagens de um
+ * {@link LocalClientHandler}. Sequências de pulos são enviadas pulo a pulo, respondendo a cada CHAIN_JUMP_OFFER,
+ * e encerradas com END_CHAIN_JUMP quando o pouso planejado é alcançado.
+ */
+public class SessionBot {
+    public enum Outcome { PLAYING, WON, LOST }
+
+    private final SearchEngine engine;
+    private final LocalClientHandler handler;
+    private final MoveStats stats;
+    private final int openingPlies;
+    private final Board board = new Board();
+
+    private int playerId;
+    private int decisions;
+    private int invalidReplies;
+    private Outcome outcome = Outcome.PLAYING;
+    // Sequência de pulos em andamento: pousos ainda não enviados
+    private int[] path;
+    private int pathIndex;
+
+    /**
+     * @param openingPlies Quantas das primeiras decisões deste bot são sorteadas em vez de buscadas
+     */
+    public SessionBot(SearchEngine engine, LocalClientHandler handler, MoveStats stats, int openingPlies) {
+        this.engine = engine;
+        this.handler = handler;
+        this.stats = stats;
+        this.openingPlies = openingPlies;
+    }
+
+    /**
+     * Processa as mensagens pendentes, respondendo à sessão na mesma thread.
+     * @return Se alguma mensagem foi processada
+     */
+    public boolean pump(Session session) {
+        boolean progressed = false;
+        String message;
+        while ((message = handler.poll()) != null) {
+            progressed = true;
+            handle(message, session);
+        }
+        return progressed;
+    }
+
+    private void handle(String message, Session session) {
+        String[] parts = message.split(Protocol.SEPARATOR, 2);
+        String data = parts.length > 1 ? parts[1] : "";
+
+        switch (parts[0]) {
+            case Protocol.WELCOME:
+                playerId = Integer.parseInt(data);
+                break;
+            case Protocol.SET_TURN:
+                if ("YOUR_TURN".equals(data)) {
+                    decide(session);
+                }
+                break;
+            case Protocol.VALID_MOVE:
+            case Protocol.JUMP_MOVE:
+            case Protocol.OPPONENT_MOVED:
+                String[] coords = data.split(Protocol.SEPARATOR);
+                board.performMove(Integer.parseInt(coords[0]), Integer.parseInt(coords[1]),
+                        Integer.parseInt(coords[2]), Integer.parseInt(coords[3]));
+                break;
+            case Protocol.CHAIN_JUMP_OFFER:
+                if (path != null && pathIndex < path.length) {
+                    sendHop(session, path[pathIndex - 1], path[pathIndex]);
+                    pathIndex++;
+                } else {
+                    path = null;
+                    session.processMessage(Protocol.END_CHAIN_JUMP, handler);
+                }
+                break;
+            case Protocol.VICTORY:
+            case Protocol.OPPONENT_FORFEIT:
+                outcome = Outcome.WON;
+                break;
+            case Protocol.DEFEAT:
+                outcome = Outcome.LOST;
+                break;
+            case Protocol.ERROR:
+            case Protocol.MOVE_REJECTED:
+                // O espelho divergiu da sessão: desiste em vez de travar a partida
+                invalidReplies++;
+                session.processMessage(Protocol.FORFEIT, handler);
+                break;
+        }
+    }
+
+    private void decide(Session session) {
+        decisions++;
+        long start = System.nanoTime();
+        long nodesBefore = engine.getNodes();
+        int move = decisions <= openingPlies ? engine.randomMove(board, playerId) : engine.findMove(board, playerId);
+        stats.record(System.nanoTime() - start);
+        stats.addNodes(engine.getNodes() - nodesBefore);
+
+        if (move == SearchEngine.NO_MOVE) {
+            session.processMessage(Protocol.FORFEIT, handler);
+            return;
+        }
+        int from = move & 0x3F;
+        int to = move >>> 6;
+        if ((board.getDirectTargets(from, false) & (1L << to)) != 0) {
+            // Passo ou pulo simples
+            path = null;
+            sendHop(session, from, to);
+            return;
+        }
+        // Pouso alcançável só com vários pulos: o caminho inclui a origem para facilitar o envio
+        int[] landings = board.getJumpPath(from, to);
+        path = new int[landings.length + 1];
+        path[0] = from;
+        System.arraycopy(landings, 0, path, 1, landings.length);
+        pathIndex = 2;
+        sendHop(session, path[0], path[1]);
+    }
+
+    private void sendHop(Session session, int from, int to) {
+        session.processMessage(Protocol.MOVE + Protocol.SEPARATOR + from / Board.SIZE + Protocol.SEPARATOR + from % Board.SIZE
+                + Protocol.SEPARATOR + to / Board.SIZE + Protocol.SEPARATOR + to % Board.SIZE, handler);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return Quantos turnos este bot jogou
+     */
+    public int getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return Quantas jogadas do bot a sessão recusou; deve ser sempre 0
+     */
+    public int getInvalidReplies() {
+        return invalidReplies;
+    }
+}
@@ -0,0 +1,337 @@
+package bot;
+
+import game.Board;
+import server.GameSession;
+import server.LocalClientHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Torneio entre configurações de motor, com as partidas distribuídas em todos os núcleos. Cada par de motores
+ * joga o número pedido de partidas, alternando quem começa, e o relatório traz a diferença de Elo com intervalo
+ * de confiança de 95%, partidas por segundo e o tempo por jogada de cada motor.
+ * <p>
+ * Modo {@code board}: as partidas rodam direto sobre {@link Board}, medindo apenas os motores. Modo
+ * {@code session}: cada partida é uma {@link GameSession} com jogadores {@link LocalClientHandler}, passando por
+ * todo o protocolo e pela validação do servidor, sem sockets; serve também como teste de carga das sessões.
+ * <p>
+ * Uso: {@code Tournament [--games N] [--threads N] [--mode board|session] [--max-plies N] [--opening-plies N]
+ * [--seed N] [--book arquivo] [--endgame] [--archive arquivo] nome:profundidade[:ruído[:pesos]] ...}
+ * <p>
+ * Com {@code --archive}, as partidas do modo {@code board} são acrescentadas a um {@link GameArchive}, que
+ * alimenta o {@link PatternTrainer}.
+ */
+public class Tournament {
+    private final List<EngineConfig> engines;
+    private final int gamesPerPair;
+    private final int threads;
+    private final boolean sessionMode;
+    private final int maxPlies;
+    private final int openingPlies;
+    private final long seed;
+    private OpeningBook openingBook;
+    private EndgameTable endgameTable;
+    private GameArchive archive;
+
+    private final MoveStats[] moveStats;
+    // Resultados do ponto de vista do primeiro motor de cada par: [par][vitórias, empates, derrotas]
+    private final LongAdder[][] results;
+    private final LongAdder totalPlies = new LongAdder();
+    private final LongAdder invalidReplies = new LongAdder();
+    private final LongAdder bookHits = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+
+    public Tournament(List<EngineConfig> engines, int gamesPerPair, int threads, boolean sessionMode,
+                      int maxPlies, int openingPlies, long seed) {
+        this.engines = engines;
+        this.gamesPerPair = gamesPerPair;
+        this.threads = threads;
+        this.sessionMode = sessionMode;
+        this.maxPlies = maxPlies;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+
+        this.moveStats = new MoveStats[engines.size()];
+        for (int i = 0; i < moveStats.length; i++) {
+            moveStats[i] = new MoveStats();
+        }
+        int pairs = engines.size() * (engines.size() - 1) / 2;
+        this.results = new LongAdder[pairs][3];
+        for (LongAdder[] pair : results) {
+            for (int i = 0; i < pair.length; i++) {
+                pair[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Livro e tabela de finais compartilhados por todos os motores do torneio; null desativa.
+     */
+    public void setKnowledge(OpeningBook openingBook, EndgameTable endgameTable) {
+        this.openingBook = openingBook;
+        this.endgameTable = endgameTable;
+    }
+
+    /**
+     * Arquivo onde gravar as partidas do modo {@code board}; null desativa.
+     */
+    public void setArchive(GameArchive archive) {
+        this.archive = archive;
+    }
+
+    private SearchEngine newEngine(int engine, long engineSeed) {
+        SearchEngine searchEngine = new SearchEngine(engines.get(engine), engineSeed);
+        searchEngine.setOpeningBook(openingBook);
+        searchEngine.setEndgameTable(endgameTable);
+        return searchEngine;
+    }
+
+    private void addHits(SearchEngine... players) {
+        for (SearchEngine player : players) {
+            bookHits.add(player.getBookHits());
+            tableHits.add(player.getTableHits());
+        }
+    }
+
+    /**
+     * Joga todas as partidas e imprime o relatório.
+     */
+    public void run() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            int pair = 0;
+            for (int a = 0; a < engines.size(); a++) {
+                for (int b = a + 1; b < engines.size(); b++) {
+                    for (int game = 0; game < gamesPerPair; game++) {
+                        int pairIndex = pair;
+                        int first = a;
+                        int second = b;
+                        // Semente por partida: o torneio é reprodutível independente da ordem de execução. Par e
+                        // partida ocupam metades distintas da chave, então duas partidas nunca repetem a semente
+                        long gameSeed = new SplittableRandom(seed ^ ((long) pair << 32 | game)).nextLong();
+                        boolean swap = game % 2 == 1;
+                        futures.add(executor.submit(() -> playAndRecord(pairIndex, first, second, swap, gameSeed)));
+                    }
+                    pair++;
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        report((System.nanoTime() - start) / 1e9, futures.size());
+    }
+
+    private void playAndRecord(int pairIndex, int a, int b, boolean swap, long gameSeed) {
+        int player1 = swap ? b : a;
+        int player2 = swap ? a : b;
+        int winner = sessionMode ? playSession(player1, player2, gameSeed) : playBoard(player1, player2, gameSeed);
+
+        // winner: 1 ou 2 é o jogador vencedor, 0 é empate
+        int outcome;
+        if (winner == 0) {
+            outcome = 1;
+        } else {
+            boolean firstEngineWon = (winner == 1) != swap;
+            outcome = firstEngineWon ? 0 : 2;
+        }
+        results[pairIndex][outcome].increment();
+    }
+
+    // Partida direta sobre o tabuleiro; cada jogada é uma jogada completa de turno
+    private int playBoard(int engine1, int engine2, long gameSeed) {
+        Board board = new Board();
+        SearchEngine[] players = {newEngine(engine1, gameSeed), newEngine(engine2, gameSeed ^ 0x5DEECE66DL)};
+        int[] engineIndex = {engine1, engine2};
+        int[] played = new int[maxPlies];
+
+        int side = 1;
+        for (int ply = 0; ply < maxPlies; ply++) {
+            SearchEngine engine = players[side - 1];
+            MoveStats stats = moveStats[engineIndex[side - 1]];
+            long startNanos = System.nanoTime();
+            long nodesBefore = engine.getNodes();
+            int move = ply < 2 * openingPlies ? engine.randomMove(board, side) : engine.findMove(board, side);
+            stats.record(System.nanoTime() - startNanos);
+            stats.addNodes(engine.getNodes() - nodesBefore);
+
+            if (move == SearchEngine.NO_MOVE) {
+                return finishBoard(players, 0, played, ply);
+            }
+            played[ply] = move;
+            int from = move & 0x3F;
+            int to = move >>> 6;
+            board.performMove(from / Board.SIZE, from % Board.SIZE, to / Board.SIZE, to % Board.SIZE);
+            if (board.checkForWinner(side)) {
+                return finishBoard(players, side, played, ply + 1);
+            }
+            side = 3 - side;
+        }
+        return finishBoard(players, 0, played, maxPlies);
+    }
+
+    private int finishBoard(SearchEngine[] players, int winner, int[] played, int plies) {
+        totalPlies.add(plies);
+        addHits(players);
+        if (archive != null) {
+            try {
+                archive.append(winner, played, plies);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return winner;
+    }
+
+    // Partida completa pelo protocolo, numa GameSession com jogadores em memória conduzida nesta thread
+    private int playSession(int engine1, int engine2, long gameSeed) {
+        LocalClientHandler handler1 = new LocalClientHandler();
+        LocalClientHandler handler2 = new LocalClientHandler();
+        GameSession session = new GameSession(handler1, handler2);
+        SearchEngine search1 = newEngine(engine1, gameSeed);
+        SearchEngine search2 = newEngine(engine2, gameSeed ^ 0x5DEECE66DL);
+        SessionBot bot1 = new SessionBot(search1, handler1, moveStats[engine1], openingPlies);
+        SessionBot bot2 = new SessionBot(search2, handler2, moveStats[engine2], openingPlies);
+
+        session.run();
+        while (!session.isFinished() && bot1.getDecisions() + bot2.getDecisions() < maxPlies) {
+            boolean progressed = bot1.pump(session);
+            progressed |= bot2.pump(session);
+            if (!progressed) {
+                break;
+            }
+        }
+        // Lê as mensagens finais (VICTORY, DEFEAT) enviadas antes de a sessão fechar os jogadores
+        bot1.pump(session);
+        bot2.pump(session);
+        totalPlies.add(bot1.getDecisions() + bot2.getDecisions());
+        invalidReplies.add(bot1.getInvalidReplies() + bot2.getInvalidReplies());
+        addHits(search1, search2);
+
+        if (bot1.getOutcome() == SessionBot.Outcome.WON) return 1;
+        if (bot2.getOutcome() == SessionBot.Outcome.WON) return 2;
+        return 0;
+    }
+
+    private void report(double seconds, int games) {
+        System.out.printf(Locale.ROOT, "%d partidas em %.2f s (%.1f partidas/s, %d threads, modo %s), média de %.1f jogadas por partida%n",
+                games, seconds, games / seconds, threads, sessionMode ? "session" : "board", totalPlies.sum() / (double) games);
+        if (openingBook != null || endgameTable != null) {
+            System.out.println("Jogadas do livro: " + bookHits.sum() + ", da tabela de finais: " + tableHits.sum());
+        }
+        if (invalidReplies.sum() > 0) {
+            System.out.println("ATENÇÃO: " + invalidReplies.sum() + " jogadas de bots recusadas pela sessão.");
+        }
+
+        System.out.println();
+        System.out.println("Confrontos (resultado do primeiro motor):");
+        int pair = 0;
+        for (int a = 0; a < engines.size(); a++) {
+            for (int b = a + 1; b < engines.size(); b++) {
+                long wins = results[pair][0].sum();
+                long draws = results[pair][1].sum();
+                long losses = results[pair][2].sum();
+                System.out.printf(Locale.ROOT, "  %s x %s: +%d =%d -%d  %s%n", engines.get(a).getName(), engines.get(b).getName(),
+                        wins, draws, losses, formatElo(wins, draws, losses));
+                pair++;
+            }
+        }
+
+        System.out.println();
+        System.out.println("Tempo por jogada:");
+        for (int i = 0; i < engines.size(); i++) {
+            MoveStats stats = moveStats[i];
+            System.out.printf(Locale.ROOT, "  %-20s %8d jogadas  média %9.1f us  p50 <%7d us  p99 <%7d us  máx %9.1f us  %,.0f nós/s%n",
+                    engines.get(i).getName(), stats.getMoves(), stats.getMeanMicros(), stats.getPercentileMicros(0.5),
+                    stats.getPercentileMicros(0.99), stats.getMaxMicros(), stats.getNodesPerSecond());
+        }
+    }
+
+    /**
+     * Diferença de Elo estimada a partir da pontuação, com intervalo de confiança de 95% pelo erro padrão da
+     * média dos resultados (1, 0.5 ou 0 por partida).
+     */
+    static String formatElo(long wins, long draws, long losses) {
+        long games = wins + draws + losses;
+        if (games == 0) {
+            return "";
+        }
+        double score = (wins + 0.5 * draws) / games;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2)) / games;
+        double margin = 1.96 * Math.sqrt(variance / games);
+        return String.format(Locale.ROOT, "pontuação %.3f  Elo %s [%s, %s]", score,
+                formatEloValue(score), formatEloValue(score - margin), formatEloValue(score + margin));
+    }
+
+    private static String formatEloValue(double score) {
+        if (score <= 0) return "-inf";
+        if (score >= 1) return "+inf";
+        return String.format(Locale.ROOT, "%+.0f", -400 * Math.log10(1 / score - 1));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean sessionMode = false;
+        int maxPlies = 300;
+        int openingPlies = 2;
+        long seed = 1;
+        OpeningBook openingBook = null;
+        EndgameTable endgameTable = null;
+        Path archivePath = null;
+        List<EngineConfig> engines = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--mode": sessionMode = "session".equals(args[++i]); break;
+                case "--max-plies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "--opening-plies": openingPlies = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--book": openingBook = new OpeningBook(Paths.get(args[++i])); break;
+                case "--endgame": endgameTable = EndgameTable.get(); break;
+                case "--archive": archivePath = Paths.get(args[++i]); break;
+                default: engines.add(EngineConfig.parse(args[i])); break;
+            }
+        }
+        if (engines.isEmpty()) {
+            engines.add(new EngineConfig("raso", 1, 1));
+            engines.add(new EngineConfig("medio", 2, 1));
+        }
+        if (engines.size() < 2) {
+            System.err.println("Informe pelo menos dois motores (nome:profundidade[:ruído[:pesos]]).");
+            return;
+        }
+
+        System.out.println("Motores: " + engines);
+        Tournament tournament = new Tournament(engines, games, threads, sessionMode, maxPlies, openingPlies, seed);
+        tournament.setKnowledge(openingBook, endgameTable);
+        if (archivePath == null) {
+            tournament.run();
+            return;
+        }
+        if (sessionMode) {
+            System.err.println("--archive só grava partidas do modo board.");
+        }
+        try (GameArchive archive = new GameArchive(archivePath)) {
+            tournament.setArchive(archive);
+            tournament.run();
+        }
+    }
+}
@@ -1,29 +1,37 @@
 package client;
 
 import game.Board;
-import game.Piece;
+import game.BoardSnapshot;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.image.BufferedImage;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 public class GameFrame extends JFrame {
     private final HalmaClient client;
     private final BoardPanel boardPanel;
+    private final MoveAnimator animator;
     private final JTextArea chatArea;
     private final JTextField chatInput;
     private final JLabel statusLabel;
-    private final Board board;
+    private final Color statusColor;
+    private final JButton endChainJumpButton;
+    // Posição exibida; cada jogada recebida substitui o snapshot em vez de alterar um tabuleiro compartilhado
+    private BoardSnapshot board = BoardSnapshot.initial();
     private int selectedRow = -1;
     private int selectedCol = -1;
     private int playerId;
     private boolean myTurn = false;
+    // Destinos informados pelo servidor para a peça selecionada (bit = row * Board.SIZE + col)
+    private boolean targetsKnown = false;
+    private long targetSquares;
+    private long chainSquares;
 
     public GameFrame(HalmaClient client) {
         this.client = client;
-        this.board = new Board();
 
         setTitle("Halma Game");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -31,6 +39,7 @@ public class GameFrame extends JFrame {
 
         // Painel do tabuleiro
         boardPanel = new BoardPanel();
+        animator = new MoveAnimator(boardPanel, board);
         add(boardPanel, BorderLayout.CENTER);
 
         // Painel de controle e chat
@@ -40,6 +49,7 @@ public class GameFrame extends JFrame {
         // Texto de status do jogador
         statusLabel = new JLabel("Conecte a um servidor para iniciar.", SwingConstants.CENTER);
         statusLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        statusColor = statusLabel.getForeground();
         eastPanel.add(statusLabel, BorderLayout.NORTH);
 
         // Chat
@@ -71,37 +81,75 @@ public class GameFrame extends JFrame {
             }
         });
         bottomPanel.add(forfeitButton);
+
+        // Encerrar sequência de pulos, visível apenas enquanto há uma sequência oferecida
+        endChainJumpButton = new JButton("Encerrar sequência de pulos");
+        endChainJumpButton.addActionListener(e -> endChainJump());
+        endChainJumpButton.setVisible(false);
+        bottomPanel.add(endChainJumpButton);
         add(bottomPanel, BorderLayout.SOUTH);
 
         pack();
         setLocationRelativeTo(null);
     }
 
-    public void updateBoardAfterJumpAndPrompt(int endRow, int endCol) {
-        // Find which piece just moved to endRow, endCol. This is complex.
-        // A simpler way: The server tells the opponent about the move.
-        // The player who moved gets the CHAIN_JUMP_OFFER. They already know their piece moved.
-        // We just need to prompt them and force their next selection.
-
-        int choice = JOptionPane.showConfirmDialog(
-                this,
-                "Outro pulo está disponível. Você deseja continuar pulando?",
-                "Sequência de pulos",
-                JOptionPane.YES_NO_OPTION
-        );
-
-        if (choice == JOptionPane.YES_OPTION) {
-            // Seleciona a posição para o próximo pulo
-            this.selectedRow = endRow;
-            this.selectedCol = endCol;
-            updateStatus("Seu turno: Continue pulando com a peça selecionada.");
-            boardPanel.repaint();
-        } else {
-            // Jogador não quis continuar
-            client.sendEndChainJump();
-            this.selectedRow = -1;
-            this.selectedCol = -1;
+    /**
+     * Oferece a continuação da sequência de pulos sem bloquear a interface: a peça fica selecionada com os destinos
+     * destacados, e o jogador clica em um destino para continuar ou no botão para encerrar.
+     */
+    public void offerChainJump(int endRow, int endCol) {
+        select(endRow, endCol);
+        updateStatus("Outro pulo está disponível: clique no destino ou encerre a sequência.");
+        endChainJumpButton.setVisible(true);
+    }
+
+    private void endChainJump() {
+        endChainJumpButton.setVisible(false);
+        // Jogador não quis continuar
+        client.sendEndChainJump();
+        clearSelection();
+    }
+
+    // Seleciona uma peça e pede ao servidor os destinos legais dela
+    private void select(int row, int col) {
+        clearSelection();
+        selectedRow = row;
+        selectedCol = col;
+        boardPanel.repaintSquares(selectionSquares());
+        client.sendTargetsRequest(row, col);
+    }
+
+    private void clearSelection() {
+        boardPanel.repaintSquares(selectionSquares());
+        selectedRow = -1;
+        selectedCol = -1;
+        targetsKnown = false;
+        targetSquares = 0;
+        chainSquares = 0;
+    }
+
+    // Casas cujo desenho depende da seleção atual: a peça selecionada e os destinos destacados
+    private long selectionSquares() {
+        long squares = targetSquares | chainSquares;
+        if (selectedRow != -1) {
+            squares |= 1L << Board.squareOf(selectedRow, selectedCol);
+        }
+        return squares;
+    }
+
+    /**
+     * Recebe os destinos legais da peça selecionada. Respostas de uma seleção anterior são ignoradas.
+     * @param direct Casas alcançáveis com a próxima jogada
+     * @param chain Casas alcançáveis apenas continuando uma sequência de pulos
+     */
+    public void showTargets(int row, int col, long direct, long chain) {
+        if (row != selectedRow || col != selectedCol) {
+            return;
         }
+        targetsKnown = true;
+        targetSquares = direct;
+        chainSquares = chain;
+        boardPanel.repaintSquares(direct | chain);
     }
 
     public void setPlayerId(int id) {
@@ -111,10 +159,18 @@ public class GameFrame extends JFrame {
 
     public void setMyTurn(boolean myTurn) {
         this.myTurn = myTurn;
+        endChainJumpButton.setVisible(false);
         updateStatus(myTurn ? "Seu turno." : "Turno do oponente.");
     }
 
     public void updateStatus(String text) {
+        statusLabel.setForeground(statusColor);
+        statusLabel.setText(text);
+    }
+
+    // Erros do servidor aparecem no status em vez de um diálogo modal
+    public void showError(String text) {
+        statusLabel.setForeground(Color.RED);
         statusLabel.setText(text);
     }
 
@@ -122,18 +178,33 @@ public class GameFrame extends JFrame {
         chatArea.append(message + "\n");
     }
 
-    public void updateBoard(int startRow, int startCol, int endRow, int endCol) {
-        board.performMove(startRow, startCol, endRow, endCol);
-        this.selectedRow = -1; // Garantir que a seleção da peça é limpa depois de um movimento
-        this.selectedCol = -1;
-        boardPanel.repaint();
+    /**
+     * Exibe uma jogada confirmada pelo servidor.
+     * @param updated Posição do espelho do motor já com a jogada aplicada
+     */
+    public void updateBoard(int startRow, int startCol, int endRow, int endCol, BoardSnapshot updated) {
+        board = updated;
+        clearSelection(); // Garantir que a seleção da peça é limpa depois de um movimento
+        animator.enqueue(startRow, startCol, endRow, endCol);
     }
 
-    public void updateBoardAndKeepSelection(int startRow, int startCol, int endRow, int endCol) {
-        board.performMove(startRow, startCol, endRow, endCol);
+    public void updateBoardAndKeepSelection(int startRow, int startCol, int endRow, int endCol, BoardSnapshot updated) {
+        board = updated;
+        clearSelection();
         this.selectedRow = endRow; // Atualiza a seleção para a nova posição
         this.selectedCol = endCol;
-        boardPanel.repaint();
+        animator.enqueue(startRow, startCol, endRow, endCol);
+    }
+
+    /**
+     * Volta a exibir a posição informada sem animação, descartando a seleção. Usado quando o servidor recusa
+     * uma jogada prevista.
+     */
+    public void resetBoard(BoardSnapshot updated) {
+        board = updated;
+        clearSelection();
+        endChainJumpButton.setVisible(false);
+        animator.reset(updated);
     }
 
     private void sendChat(ActionEvent e) {
@@ -145,6 +216,21 @@ public class GameFrame extends JFrame {
     }
 
     private class BoardPanel extends JPanel {
+        private static final Color PLAYER1_BASE_COLOR = new Color(70, 70, 70); // Cinza escuro para a base do jogador 1
+        private static final Color PLAYER2_BASE_COLOR = new Color(210, 210, 210); // Cinza claro para a base do jogador 2
+        private static final Color LIGHT_SQUARE_COLOR = new Color(240, 217, 181);
+        private static final Color DARK_SQUARE_COLOR = new Color(181, 136, 99);
+        private static final Color TARGET_COLOR = new Color(60, 200, 90);
+        private static final Color CHAIN_TARGET_COLOR = new Color(60, 200, 90, 110);
+        private static final BasicStroke SELECTION_STROKE = new BasicStroke(3);
+
+        // Fundo do tabuleiro (casas e bases) pré-renderizado, refeito apenas quando o tamanho da casa muda
+        private BufferedImage background;
+        // Sprites das peças por id de jogador, no tamanho da casa atual
+        private final BufferedImage[] pieceSprites = new BufferedImage[3];
+        private int cachedCellWidth;
+        private int cachedCellHeight;
+
         BoardPanel() {
             setPreferredSize(new Dimension(500, 500));
             addMouseListener(new MouseAdapter() {
@@ -157,32 +243,80 @@ public class GameFrame extends JFrame {
 
                     int col = e.getX() / cellWidth;
                     int row = e.getY() / cellHeight;
+                    if (row >= Board.SIZE || col >= Board.SIZE) return;
 
-                    Piece clickedPiece = board.getPieceAt(row, col);
+                    int clickedOwner = board.getOwnerAt(row, col);
 
                     if (selectedRow == -1) { // Seleciona uma peça
-                        if (clickedPiece != null && clickedPiece.getPlayerId() == playerId) {
-                            selectedRow = row;
-                            selectedCol = col;
+                        if (clickedOwner == playerId) {
+                            select(row, col);
                         }
-                    } else { // Move a peça selecionada
+                    } else if (!targetsKnown || (targetSquares & (1L << Board.squareOf(row, col))) != 0) {
+                        // Move a peça selecionada; sem a resposta do servidor ainda, o servidor valida
                         client.sendMove(selectedRow, selectedCol, row, col);
-                        selectedRow = -1;
-                        selectedCol = -1;
+                        clearSelection();
+                    } else if ((chainSquares & (1L << Board.squareOf(row, col))) != 0) {
+                        updateStatus("Essa casa só é alcançada com uma sequência de pulos.");
+                    } else if (clickedOwner == playerId) {
+                        select(row, col);
+                    } else {
+                        // Destino sabidamente inválido: não envia a jogada
+                        clearSelection();
                     }
-                    repaint();
                 }
             });
         }
 
-        private boolean isPlayer1BasePrecise(int row, int col) {
-            return (row == 0 && col <= 2) || (row == 1 && col <= 2) || (row == 2 && col <= 1) || (row == 3 && col == 0);
+        /**
+         * Invalida apenas as casas informadas (bit = row * Board.SIZE + col), em vez do painel inteiro.
+         */
+        void repaintSquares(long squares) {
+            int cellWidth = getWidth() / Board.SIZE;
+            int cellHeight = getHeight() / Board.SIZE;
+            for (; squares != 0; squares &= squares - 1) {
+                int square = Long.numberOfTrailingZeros(squares);
+                repaint(square % Board.SIZE * cellWidth, square / Board.SIZE * cellHeight, cellWidth, cellHeight);
+            }
         }
 
-        private boolean isPlayer2BasePrecise(int row, int col) {
-            int size = Board.SIZE;
-            return (row == size - 1 && col >= size - 3) || (row == size - 2 && col >= size - 3) ||
-                    (row == size - 3 && col >= size - 2) || (row == size - 4 && col >= size - 1);
+        // Refaz o fundo e os sprites se o tamanho da casa mudou desde o último desenho
+        private void ensureCache(int cellWidth, int cellHeight) {
+            if (background != null && cellWidth == cachedCellWidth && cellHeight == cachedCellHeight) {
+                return;
+            }
+            cachedCellWidth = cellWidth;
+            cachedCellHeight = cellHeight;
+
+            background = new BufferedImage(cellWidth * Board.SIZE, cellHeight * Board.SIZE, BufferedImage.TYPE_INT_RGB);
+            Graphics2D bg = background.createGraphics();
+            for (int row = 0; row < Board.SIZE; row++) {
+                for (int col = 0; col < Board.SIZE; col++) {
+                    // Pinta o quadrado de acordo com a cor base de jogador
+                    long squareBit = 1L << Board.squareOf(row, col);
+                    if ((Board.PLAYER1_CAMP & squareBit) != 0) {
+                        bg.setColor(PLAYER1_BASE_COLOR);
+                    } else if ((Board.PLAYER2_CAMP & squareBit) != 0) {
+                        bg.setColor(PLAYER2_BASE_COLOR);
+                    } else {
+                        // Se não for uma base, pinta a cor normal do tabuleiro
+                        bg.setColor((row + col) % 2 == 0 ? LIGHT_SQUARE_COLOR : DARK_SQUARE_COLOR);
+                    }
+                    bg.fillRect(col * cellWidth, row * cellHeight, cellWidth, cellHeight);
+                }
+            }
+            bg.dispose();
+
+            pieceSprites[1] = createPieceSprite(cellWidth, cellHeight, Color.BLACK);
+            pieceSprites[2] = createPieceSprite(cellWidth, cellHeight, Color.WHITE);
+        }
+
+        private BufferedImage createPieceSprite(int cellWidth, int cellHeight, Color color) {
+            BufferedImage sprite = new BufferedImage(cellWidth, cellHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D sg = sprite.createGraphics();
+            sg.setColor(color);
+            sg.fillOval(5, 5, cellWidth - 10, cellHeight - 10);
+            sg.dispose();
+            return sprite;
         }
 
         @Override
@@ -190,45 +324,53 @@ public class GameFrame extends JFrame {
             super.paintComponent(g);
             int cellWidth = getWidth() / Board.SIZE;
             int cellHeight = getHeight() / Board.SIZE;
+            if (cellWidth <= 0 || cellHeight <= 0) return;
 
-            for (int row = 0; row < Board.SIZE; row++) {
-                for (int col = 0; col < Board.SIZE; col++) {
-                    // Pinta o quadrado de acordo com a cor base de jogador
-                    if (isPlayer1BasePrecise(row, col)) {
-                        g.setColor(new Color(70, 70, 70)); // Cinza escuro para a base do jogador 1
-                    } else if (isPlayer2BasePrecise(row, col)) {
-                        g.setColor(new Color(210, 210, 210)); // Cinza claro para a base do jogador 2
-                    } else {
-                        // Se não for uma base, pinta a cor normal do tabuleiro
-                        if ((row + col) % 2 == 0) {
-                            g.setColor(new Color(240, 217, 181)); // Quadrado claro
-                        } else {
-                            g.setColor(new Color(181, 136, 99)); // Quadrado escuro
-                        }
-                    }
-                    g.fillRect(col * cellWidth, row * cellHeight, cellWidth, cellHeight);
+            ensureCache(cellWidth, cellHeight);
+            g.drawImage(background, 0, 0, null);
+
+            // Só percorre as casas dentro da região invalidada
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            int firstRow = Math.max(0, clip.y / cellHeight);
+            int lastRow = Math.min(Board.SIZE - 1, (clip.y + clip.height - 1) / cellHeight);
+            int firstCol = Math.max(0, clip.x / cellWidth);
+            int lastCol = Math.min(Board.SIZE - 1, (clip.x + clip.width - 1) / cellWidth);
+
+            // As peças vêm da posição exibida, que pode estar atrás da lógica enquanto há animações
+            BoardSnapshot displayBoard = animator.getDisplayBoard();
+            int hiddenSquare = animator.getHiddenSquare();
 
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
                     // Desenha as peças nos quadrados
-                    Piece piece = board.getPieceAt(row, col);
-                    if (piece != null) {
-                        if (piece.getPlayerId() == 1) {
-                            g.setColor(Color.BLACK);
-                        } else {
-                            g.setColor(Color.WHITE);
-                        }
-                        g.fillOval(col * cellWidth + 5, row * cellHeight + 5, cellWidth - 10, cellHeight - 10);
+                    int owner = displayBoard.getOwnerAt(row, col);
+                    if (owner != 0 && Board.squareOf(row, col) != hiddenSquare) {
+                        g.drawImage(pieceSprites[owner], col * cellWidth, row * cellHeight, null);
+                    }
+
+                    // Destaca os destinos da peça selecionada
+                    long squareBit = 1L << Board.squareOf(row, col);
+                    if ((targetSquares & squareBit) != 0 || (chainSquares & squareBit) != 0) {
+                        g.setColor((targetSquares & squareBit) != 0 ? TARGET_COLOR : CHAIN_TARGET_COLOR);
+                        g.fillOval(col * cellWidth + cellWidth / 3, row * cellHeight + cellHeight / 3, cellWidth / 3, cellHeight / 3);
                     }
 
                     // Destaca a peça selecionada
                     if (row == selectedRow && col == selectedCol) {
                         g.setColor(Color.CYAN);
                         Graphics2D g2d = (Graphics2D) g;
-                        g2d.setStroke(new BasicStroke(3));
+                        Stroke previousStroke = g2d.getStroke();
+                        g2d.setStroke(SELECTION_STROKE);
                         g.drawRect(col * cellWidth + 1, row * cellHeight + 1, cellWidth - 3, cellHeight - 3);
-                        g2d.setStroke(new BasicStroke(1));
+                        g2d.setStroke(previousStroke);
                     }
                 }
             }
+
+            animator.paintMovingPiece(g, pieceSprites, cellWidth, cellHeight);
         }
 
 //        @Override
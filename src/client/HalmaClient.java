@@ -1,28 +1,36 @@
 package client;
 
+import client.core.ClientEngine;
+import client.core.ClientListener;
+import client.core.ServerEvent;
+import client.core.TurnState;
+import game.BoardSnapshot;
 import shared.Protocol;
 
 import javax.swing.*;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Cliente Swing: liga o {@link ClientEngine} (conexão, protocolo e estado da partida) à {@link GameFrame}.
+ */
 public class HalmaClient {
-    private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
+    private final ClientEngine engine = new ClientEngine();
     private final GameFrame gameFrame;
-    private String lastGameStats;
+    // Nome para o ranking; vazio joga anônimo
+    private String playerName = "";
 
     public HalmaClient() {
         gameFrame = new GameFrame(this);
         gameFrame.setVisible(true);
+        engine.addListener(new SwingEventDispatcher());
 
         String serverAddress = JOptionPane.showInputDialog(gameFrame, "Entre com o endereço IP:", "localhost");
 
         if (serverAddress != null && !serverAddress.trim().isEmpty()) {
+            String name = JOptionPane.showInputDialog(gameFrame, "Nome do jogador (vazio para jogar sem ranking):", "");
+            playerName = name != null ? name.trim() : "";
             connect(serverAddress, 12345);
         } else {
             System.exit(0);
@@ -30,21 +38,16 @@ public class HalmaClient {
     }
 
     public void shutdown() {
-        try {
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
-            }
-        } catch (IOException e) {
-            System.err.println("Erro durante fechamento do socket cliente: " + e.getMessage());
-        }
+        engine.shutdown();
     }
 
     public void connect(String serverAddress, int port) {
         try {
-            socket = new Socket(serverAddress, port);
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            new Thread(new ServerListener()).start();
+            engine.connect(serverAddress, port);
+            if (!playerName.isEmpty()) {
+                engine.sendLogin(playerName);
+            }
+            engine.sendQuickMatch();
             gameFrame.updateStatus("Conectado. Aguardando por um oponente...");
         } catch (IOException e) {
             JOptionPane.showMessageDialog(gameFrame, "Não foi possível se conectar ao servidor.", "Erro de conexão", JOptionPane.ERROR_MESSAGE);
@@ -53,112 +56,134 @@ public class HalmaClient {
     }
 
     public void sendMove(int startRow, int startCol, int endRow, int endCol) {
-        String message = Protocol.MOVE + Protocol.SEPARATOR + startRow + Protocol.SEPARATOR + startCol + Protocol.SEPARATOR + endRow + Protocol.SEPARATOR + endCol;
-        out.println(message);
+        engine.sendMove(startRow, startCol, endRow, endCol);
     }
 
     public void sendChatMessage(String message) {
-        out.println(Protocol.CHAT + Protocol.SEPARATOR + message);
+        engine.sendChatMessage(message);
     }
 
     public void sendForfeit() {
-        out.println(Protocol.FORFEIT);
+        engine.sendForfeit();
     }
 
     public void sendEndChainJump() {
-        out.println(Protocol.END_CHAIN_JUMP);
+        engine.sendEndChainJump();
+    }
+
+    public void sendTargetsRequest(int row, int col) {
+        engine.sendTargetsRequest(row, col);
     }
 
     /**
-     * Thread dedicada a escutar mensagens do servidor.
-     * Previne da interface congelar enquanto aguarda dados de entrada e saída da rede.
+     * Repassa os eventos do motor para a EDT. Os eventos chegam na thread de leitura e são enfileirados; a EDT
+     * aplica todos os pendentes de uma vez, então uma rajada de mensagens custa uma única passagem pela interface.
      */
-    private class ServerListener implements Runnable {
+    private class SwingEventDispatcher implements ClientListener {
+        private final ConcurrentLinkedQueue<PendingEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
         @Override
-        public void run() {
-            try {
-                String serverMessage;
-                while ((serverMessage = in.readLine()) != null) {
-                    processServerMessage(serverMessage);
-                }
-            } catch (IOException e) {
-                gameFrame.updateStatus("Conexão com o servidor perdida.");
-                System.err.println("Erro ao ler do servidor: " + e.getMessage());
+        public void onEvent(ServerEvent event, BoardSnapshot board, TurnState state) {
+            pendingEvents.add(new PendingEvent(event, board));
+            // Agenda no máximo uma drenagem pendente na EDT
+            if (drainScheduled.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::drainEvents);
             }
         }
 
-        private void processServerMessage(String message) {
-            String[] parts = message.split(Protocol.SEPARATOR, 2);
-            String command = parts[0];
-
-            //
-            SwingUtilities.invokeLater(() -> {
-                switch (command) {
-                    case Protocol.GAME_OVER_STATS:
-                        lastGameStats = parts[1];
-                        break;
-                    case Protocol.WELCOME:
-                        int playerId = Integer.parseInt(parts[1]);
-                        gameFrame.setPlayerId(playerId);
-                        break;
-                    case Protocol.INFO:
-                        gameFrame.updateStatus(parts[1]);
-                        break;
-                    case Protocol.OPPONENT_FOUND:
-                        gameFrame.updateStatus("Oponente encontrado. Iniciando partida...");
-                        break;
-                    case Protocol.SET_TURN:
-                        boolean isMyTurn = "YOUR_TURN".equals(parts[1]);
-                        gameFrame.setMyTurn(isMyTurn);
-                        break;
-                    case Protocol.VALID_MOVE:
-                    case Protocol.OPPONENT_MOVED:
-                        String[] coords = parts[1].split(Protocol.SEPARATOR);
-                        int startRow = Integer.parseInt(coords[0]);
-                        int startCol = Integer.parseInt(coords[1]);
-                        int endRow = Integer.parseInt(coords[2]);
-                        int endCol = Integer.parseInt(coords[3]);
-                        gameFrame.updateBoard(startRow, startCol, endRow, endCol);
-                        break;
-                    case Protocol.JUMP_MOVE:
-                        String[] jumpCoords = parts[1].split(Protocol.SEPARATOR);
-                        int jumpStartRow = Integer.parseInt(jumpCoords[0]);
-                        int jumpStartCol = Integer.parseInt(jumpCoords[1]);
-                        int jumpEndRow = Integer.parseInt(jumpCoords[2]);
-                        int jumpEndCol = Integer.parseInt(jumpCoords[3]);
-                        gameFrame.updateBoardAndKeepSelection(jumpStartRow, jumpStartCol, jumpEndRow, jumpEndCol);
-                        break;
-                    case Protocol.CHAT_MESSAGE:
-                        gameFrame.addChatMessage(parts[1]);
-                        break;
-                    case Protocol.CHAIN_JUMP_OFFER:
-                        String[] newCoords = parts[1].split(Protocol.SEPARATOR);
-                        int newEndRow = Integer.parseInt(newCoords[0]);
-                        int newEndCol = Integer.parseInt(newCoords[1]);
-                        gameFrame.updateBoardAfterJumpAndPrompt(newEndRow, newEndCol);
-                        break;
-                    case Protocol.VICTORY:
-                        JOptionPane.showMessageDialog(gameFrame, "Parabéns, você ganhou!", "Fim de jogo", JOptionPane.INFORMATION_MESSAGE);
-                        showResultsAndExit();
-                        break;
-                    case Protocol.DEFEAT:
-                        JOptionPane.showMessageDialog(gameFrame, "Você perdeu a partida.", "Fim de jogo", JOptionPane.WARNING_MESSAGE);
-                        showResultsAndExit();
-                        break;
-                    case Protocol.OPPONENT_FORFEIT:
-                        JOptionPane.showMessageDialog(gameFrame, "Seu oponente desistiu. Você ganhou!", "Vitória", JOptionPane.INFORMATION_MESSAGE);
-                        showResultsAndExit();
-                        break;
-                    case Protocol.ERROR:
-                        JOptionPane.showMessageDialog(gameFrame, parts[1], "Erro", JOptionPane.ERROR_MESSAGE);
-                        break;
-                }
-            });
+        private void drainEvents() {
+            // Liberado antes de drenar: eventos que chegarem durante a drenagem agendam uma nova passagem
+            drainScheduled.set(false);
+            PendingEvent pending;
+            while ((pending = pendingEvents.poll()) != null) {
+                apply(pending.event, pending.board);
+            }
+        }
+
+        private void apply(ServerEvent event, BoardSnapshot board) {
+            switch (event.getCommand()) {
+                case Protocol.WELCOME:
+                    gameFrame.setPlayerId(event.getInt(0));
+                    break;
+                case Protocol.INFO:
+                case ServerEvent.CONNECTION_LOST:
+                case ServerEvent.RECONNECTING:
+                    gameFrame.updateStatus(event.getText());
+                    break;
+                case ServerEvent.RECONNECTED:
+                    // O servidor reiniciou antes de a partida começar: volta para a fila
+                    if (!playerName.isEmpty()) {
+                        engine.sendLogin(playerName);
+                    }
+                    engine.sendQuickMatch();
+                    gameFrame.updateStatus("Reconectado. Aguardando por um oponente...");
+                    break;
+                case Protocol.SESSION_RESUMED:
+                    gameFrame.resetBoard(board);
+                    gameFrame.updateStatus("Partida retomada.");
+                    break;
+                case Protocol.OPPONENT_FOUND:
+                    gameFrame.updateStatus("Oponente encontrado. Iniciando partida...");
+                    break;
+                case Protocol.SET_TURN:
+                    boolean isMyTurn = "YOUR_TURN".equals(event.getText());
+                    gameFrame.setMyTurn(isMyTurn);
+                    break;
+                case ServerEvent.PREDICTED_MOVE:
+                    // Jogada própria exibida antes da resposta do servidor
+                    if (event.getInt(4) != 0) {
+                        gameFrame.updateBoardAndKeepSelection(event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3), board);
+                    } else {
+                        gameFrame.updateBoard(event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3), board);
+                    }
+                    break;
+                case ServerEvent.MOVE_CONFIRMED:
+                    // Já exibida na previsão
+                    break;
+                case Protocol.MOVE_REJECTED:
+                    gameFrame.resetBoard(board);
+                    gameFrame.showError(event.getText());
+                    break;
+                case Protocol.VALID_MOVE:
+                case Protocol.OPPONENT_MOVED:
+                    gameFrame.updateBoard(event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3), board);
+                    break;
+                case Protocol.JUMP_MOVE:
+                    gameFrame.updateBoardAndKeepSelection(event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3), board);
+                    break;
+                case Protocol.TARGETS:
+                    gameFrame.showTargets(event.getInt(0), event.getInt(1), event.getLong(2), event.getLong(3));
+                    break;
+                case Protocol.CHAT_MESSAGE:
+                    gameFrame.addChatMessage(event.getText());
+                    break;
+                case Protocol.CHAIN_JUMP_OFFER:
+                    gameFrame.offerChainJump(event.getInt(0), event.getInt(1));
+                    break;
+                case Protocol.VICTORY:
+                    JOptionPane.showMessageDialog(gameFrame, "Parabéns, você ganhou!", "Fim de jogo", JOptionPane.INFORMATION_MESSAGE);
+                    showResultsAndExit();
+                    break;
+                case Protocol.DEFEAT:
+                    JOptionPane.showMessageDialog(gameFrame, "Você perdeu a partida.", "Fim de jogo", JOptionPane.WARNING_MESSAGE);
+                    showResultsAndExit();
+                    break;
+                case Protocol.OPPONENT_FORFEIT:
+                    JOptionPane.showMessageDialog(gameFrame, "Seu oponente desistiu. Você ganhou!", "Vitória", JOptionPane.INFORMATION_MESSAGE);
+                    showResultsAndExit();
+                    break;
+                case Protocol.ERROR:
+                    // Sem diálogo modal: o erro aparece no status e a interface continua recebendo eventos
+                    gameFrame.showError(event.getText());
+                    break;
+            }
         }
 
         private void showResultsAndExit() {
+            String lastGameStats = engine.getLastGameStats();
             if (lastGameStats != null) {
-                ResultsDialog resultsDialog = new ResultsDialog(gameFrame, lastGameStats);
+                ResultsDialog resultsDialog = new ResultsDialog(gameFrame, lastGameStats, engine.getChatHistory());
                 resultsDialog.setVisible(true);
             }
 
@@ -167,6 +192,17 @@ public class HalmaClient {
         }
     }
 
+    // Evento acompanhado da posição do espelho no momento em que foi aplicado
+    private static class PendingEvent {
+        final ServerEvent event;
+        final BoardSnapshot board;
+
+        PendingEvent(ServerEvent event, BoardSnapshot board) {
+            this.event = event;
+            this.board = board;
+        }
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(HalmaClient::new);
     }
@@ -0,0 +1,173 @@
+package client;
+
+import game.Board;
+import game.BoardSnapshot;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+
+/**
+ * Anima as jogadas recebidas, um salto por vez, com um único {@link Timer} do Swing para todas as animações.
+ * Mantém a posição exibida, que fica atrás da posição lógica do {@link GameFrame} enquanto há saltos na fila.
+ * Se as jogadas chegam mais rápido do que podem ser animadas, os saltos mais antigos são aplicados direto e os
+ * restantes ficam mais curtos, para a tela nunca ficar para trás do servidor.
+ * Todos os métodos devem ser chamados na EDT.
+ */
+class MoveAnimator {
+    private static final int FRAME_MILLIS = 16; // ~60 fps
+    private static final long STEP_NANOS = 150_000_000L;
+    private static final long JUMP_NANOS = 220_000_000L;
+    // Saltos aguardando além do atual; acima disso os mais antigos são aplicados sem animação
+    private static final int MAX_BACKLOG = 3;
+
+    private final JComponent target;
+    private final Timer timer;
+    // Saltos pendentes: origem | (destino << 6), no formato row * Board.SIZE + col
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+    private BoardSnapshot displayBoard;
+
+    private int currentFrom = -1;
+    private int currentTo = -1;
+    private long startNanos;
+    private long durationNanos;
+    private Rectangle lastBounds;
+
+    MoveAnimator(JComponent target, BoardSnapshot initial) {
+        this.target = target;
+        this.displayBoard = initial;
+        this.timer = new Timer(FRAME_MILLIS, e -> tick());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Adiciona um salto (passo ou pulo) à fila de animação.
+     */
+    void enqueue(int startRow, int startCol, int endRow, int endCol) {
+        queue.add(Board.squareOf(startRow, startCol) | (Board.squareOf(endRow, endCol) << 6));
+
+        // Fila longa demais: aplica os saltos mais antigos imediatamente
+        while (queue.size() > MAX_BACKLOG) {
+            int hop = queue.poll();
+            if (currentTo >= 0) {
+                finishCurrent();
+            }
+            applyToDisplay(hop & 0x3F, hop >>> 6);
+            repaintSquare(hop & 0x3F);
+            repaintSquare(hop >>> 6);
+        }
+
+        if (currentTo < 0) {
+            startNext();
+        }
+    }
+
+    /**
+     * Descarta as animações pendentes e passa a exibir a posição informada.
+     */
+    void reset(BoardSnapshot board) {
+        queue.clear();
+        timer.stop();
+        currentFrom = -1;
+        currentTo = -1;
+        lastBounds = null;
+        displayBoard = board;
+        target.repaint();
+    }
+
+    BoardSnapshot getDisplayBoard() {
+        return displayBoard;
+    }
+
+    /**
+     * @return A casa de destino da peça em movimento, que não deve ser desenhada no lugar, ou -1
+     */
+    int getHiddenSquare() {
+        return currentTo;
+    }
+
+    /**
+     * Desenha a peça em movimento na posição interpolada, se houver animação em andamento.
+     */
+    void paintMovingPiece(Graphics g, BufferedImage[] sprites, int cellWidth, int cellHeight) {
+        if (currentTo < 0) {
+            return;
+        }
+        Rectangle bounds = currentBounds(cellWidth, cellHeight);
+        int owner = displayBoard.getOwnerAt(currentTo / Board.SIZE, currentTo % Board.SIZE);
+        if (owner != 0) {
+            g.drawImage(sprites[owner], bounds.x, bounds.y, null);
+        }
+    }
+
+    private void startNext() {
+        Integer hop = queue.poll();
+        if (hop == null) {
+            timer.stop();
+            return;
+        }
+        currentFrom = hop & 0x3F;
+        currentTo = hop >>> 6;
+        applyToDisplay(currentFrom, currentTo);
+
+        // Com saltos na fila, as animações ficam mais curtas para alcançar o servidor
+        long base = Board.isJump(currentFrom, currentTo) ? JUMP_NANOS : STEP_NANOS;
+        durationNanos = base / (1 + queue.size());
+        startNanos = System.nanoTime();
+        lastBounds = null;
+
+        repaintSquare(currentFrom);
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    private void tick() {
+        if (currentTo < 0) {
+            timer.stop();
+            return;
+        }
+        int cellWidth = target.getWidth() / Board.SIZE;
+        int cellHeight = target.getHeight() / Board.SIZE;
+
+        // Invalida apenas a área antiga e a nova da peça em movimento
+        Rectangle bounds = currentBounds(cellWidth, cellHeight);
+        target.repaint(lastBounds == null ? bounds : bounds.union(lastBounds));
+        lastBounds = bounds;
+
+        if (System.nanoTime() - startNanos >= durationNanos) {
+            finishCurrent();
+            startNext();
+        }
+    }
+
+    private void finishCurrent() {
+        if (lastBounds != null) {
+            target.repaint(lastBounds);
+        }
+        repaintSquare(currentTo);
+        currentFrom = -1;
+        currentTo = -1;
+        lastBounds = null;
+    }
+
+    private Rectangle currentBounds(int cellWidth, int cellHeight) {
+        double progress = Math.min(1.0, (System.nanoTime() - startNanos) / (double) durationNanos);
+        // Suaviza início e fim do movimento
+        double eased = progress * progress * (3 - 2 * progress);
+        double col = currentFrom % Board.SIZE + (currentTo % Board.SIZE - currentFrom % Board.SIZE) * eased;
+        double row = currentFrom / Board.SIZE + (currentTo / Board.SIZE - currentFrom / Board.SIZE) * eased;
+        return new Rectangle((int) Math.round(col * cellWidth), (int) Math.round(row * cellHeight), cellWidth, cellHeight);
+    }
+
+    private void applyToDisplay(int from, int to) {
+        displayBoard = displayBoard.withMove(from / Board.SIZE, from % Board.SIZE, to / Board.SIZE, to % Board.SIZE);
+    }
+
+    private void repaintSquare(int square) {
+        int cellWidth = target.getWidth() / Board.SIZE;
+        int cellHeight = target.getHeight() / Board.SIZE;
+        target.repaint(square % Board.SIZE * cellWidth, square / Board.SIZE * cellHeight, cellWidth, cellHeight);
+    }
+}
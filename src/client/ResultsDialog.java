@@ -4,10 +4,15 @@ import shared.Protocol;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 public class ResultsDialog extends JDialog {
 
-    public ResultsDialog(Frame owner, String statsData) {
+    /**
+     * @param statsData Dados de GAME_OVER_STATS: vencedor, contadores e total de mensagens da partida
+     * @param chatHistory Mensagens recebidas em linhas CHAT_HISTORY (apenas as mais recentes, se houve muitas)
+     */
+    public ResultsDialog(Frame owner, String statsData, List<String> chatHistory) {
         super(owner, "Tela de resultados da partida", true);
 
         // Converte os dados da partida
@@ -17,13 +22,18 @@ public class ResultsDialog extends JDialog {
         String p1Invalid = parts[2];
         String p2Moves = parts[3];
         String p2Invalid = parts[4];
+        long totalMessages = parts.length > 5 ? Long.parseLong(parts[5]) : chatHistory.size();
         String chatLog;
 
-        if (parts.length > 5 && !parts[5].isEmpty()) {
-            chatLog = parts[5].replace("|", "\n");
+        if (!chatHistory.isEmpty()) {
+            chatLog = String.join("\n", chatHistory);
         } else {
             chatLog = "Sem histórico de conversas.";
         }
+        String chatTitle = "Histórico de mensagens";
+        if (totalMessages > chatHistory.size()) {
+            chatTitle += " (últimas " + chatHistory.size() + " de " + totalMessages + ")";
+        }
 
         // Configuração dos componentes de interface
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
@@ -48,7 +58,7 @@ public class ResultsDialog extends JDialog {
         chatArea.setEditable(false);
         chatArea.setLineWrap(true);
         JScrollPane chatScrollPane = new JScrollPane(chatArea);
-        chatScrollPane.setBorder(BorderFactory.createTitledBorder("Histórico de mensagens"));
+        chatScrollPane.setBorder(BorderFactory.createTitledBorder(chatTitle));
         mainPanel.add(chatScrollPane, BorderLayout.SOUTH);
 
         // Botão de fechar
@@ -0,0 +1,90 @@
+package client.core;
+
+import shared.Tls;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.function.Consumer;
+
+/**
+ * Conexão de texto com o servidor: uma thread daemon lê as linhas e as entrega ao consumidor, e o envio é
+ * sincronizado para poder ser chamado de qualquer thread. Com TLS ativo ({@link Tls#TRUSTSTORE_PROPERTY}), o
+ * handshake é feito no construtor, e falhas de certificado aparecem como erro de conexão.
+ */
+public class ClientConnection {
+    private final Socket socket;
+    private final PrintWriter out;
+    private final BufferedReader in;
+    private final Consumer<String> lineConsumer;
+    private final Runnable disconnectHandler;
+
+    public ClientConnection(String serverAddress, int port, Consumer<String> lineConsumer, Runnable disconnectHandler) throws IOException {
+        this.socket = openSocket(serverAddress, port);
+        this.out = new PrintWriter(socket.getOutputStream(), true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        this.lineConsumer = lineConsumer;
+        this.disconnectHandler = disconnectHandler;
+    }
+
+    private static Socket openSocket(String serverAddress, int port) throws IOException {
+        SSLContext tls;
+        try {
+            tls = Tls.clientContext();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Falha ao configurar o TLS: " + e.getMessage(), e);
+        }
+        if (tls == null) {
+            Socket socket = new Socket(serverAddress, port);
+            socket.setTcpNoDelay(true);
+            return socket;
+        }
+        SSLSocket socket = (SSLSocket) tls.getSocketFactory().createSocket(serverAddress, port);
+        try {
+            socket.setTcpNoDelay(true);
+            Tls.verifyHostname(socket);
+            socket.startHandshake();
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return socket;
+    }
+
+    public void start() {
+        Thread reader = new Thread(this::readLoop, "halma-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readLoop() {
+        try {
+            String serverMessage;
+            while ((serverMessage = in.readLine()) != null) {
+                lineConsumer.accept(serverMessage);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao ler do servidor: " + e.getMessage());
+        }
+        disconnectHandler.run();
+    }
+
+    public synchronized void send(String message) {
+        out.println(message);
+    }
+
+    public void close() {
+        try {
+            if (!socket.isClosed()) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Erro durante fechamento do socket cliente: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package client.core;
+
+import game.Board;
+import game.BoardSnapshot;
+import shared.Protocol;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Núcleo do cliente sem interface gráfica: conexão, codificação do protocolo, tabuleiro espelho e máquina de
+ * estados do turno. A interface Swing é apenas um {@link ClientListener}; bots, geradores de carga e testes
+ * automatizados podem usar o motor diretamente, sem AWT.
+ * <p>
+ * As jogadas próprias são previstas: validadas localmente com as regras de {@link Board}, aplicadas na hora e
+ * enviadas com um número de sequência. A confirmação do servidor apenas retira a jogada da fila de pendentes;
+ * uma recusa ({@link Protocol#MOVE_REJECTED}) desfaz a jogada e todas as previstas depois dela. O servidor
+ * continua sendo a autoridade.
+ * <p>
+ * Quando o servidor reinicia ele envia {@link Protocol#RECONNECT}; ao perder a conexão o motor tenta de novo com
+ * espera exponencial aleatória, para que os clientes de um servidor drenado não voltem todos no mesmo instante, e
+ * retoma a partida com {@link Protocol#RESUME}.
+ */
+public class ClientEngine {
+    private static final int MAX_CHAT_HISTORY = 200;
+    private static final int RECONNECT_ATTEMPTS = 10;
+    private static final long RECONNECT_BASE_MILLIS = 250;
+    private static final long RECONNECT_MAX_MILLIS = 8000;
+
+    private final List<ClientListener> listeners = new CopyOnWriteArrayList<>();
+    // Posição confirmada pelo servidor; a exibida é esta mais as jogadas pendentes
+    private final Board confirmed = new Board();
+    // Tabuleiro de rascunho para validar jogadas locais
+    private final Board scratch = new Board();
+    private final ArrayDeque<PendingMove> pendingMoves = new ArrayDeque<>();
+    private int nextSequence = 1;
+    private int sideToMove = 1;
+    private int chainRow = -1;
+    private int chainCol = -1;
+    // Histórico recebido em linhas CHAT_HISTORY, por índice; limitado às mensagens mais recentes
+    private final TreeMap<Long, String> chatHistory = new TreeMap<>();
+
+    private volatile ClientConnection connection;
+    private String serverAddress;
+    private int port;
+    // Token recebido em RECONNECT; vazio se não havia partida a retomar, null se o servidor não pediu reconexão
+    private volatile String resumeToken;
+    private volatile boolean closed;
+    private volatile BoardSnapshot snapshot = BoardSnapshot.initial();
+    private volatile TurnState state = TurnState.DISCONNECTED;
+    private volatile int playerId;
+    private volatile String lastGameStats;
+
+    public void addListener(ClientListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ClientListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Conecta ao servidor e passa a aguardar um oponente.
+     * @throws IOException Se não for possível abrir a conexão
+     */
+    public void connect(String serverAddress, int port) throws IOException {
+        this.serverAddress = serverAddress;
+        this.port = port;
+        connection = new ClientConnection(serverAddress, port, this::handleLine, this::handleDisconnect);
+        state = TurnState.WAITING_FOR_OPPONENT;
+        connection.start();
+    }
+
+    public void shutdown() {
+        closed = true;
+        ClientConnection connection = this.connection;
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Entra na sala de pareamento automático do lobby.
+     */
+    public void sendQuickMatch() {
+        send(Protocol.QUICK_MATCH);
+    }
+
+    /**
+     * Cria uma sala no lobby e entra nela; a resposta é {@link Protocol#ROOM_CREATED}.
+     */
+    public void sendCreateRoom(String name) {
+        send(ProtocolCodec.encodeCreateRoom(name));
+    }
+
+    public void sendJoinRoom(int roomId) {
+        send(ProtocolCodec.encodeJoinRoom(roomId));
+    }
+
+    /**
+     * Pede uma página da lista de salas; a resposta é {@link Protocol#ROOM_LIST}.
+     */
+    public void sendListRooms(int page) {
+        send(ProtocolCodec.encodeListRooms(page));
+    }
+
+    /**
+     * Identifica o jogador para o ranking; a resposta é {@link Protocol#PLAYER_STATS} ou um erro se o nome for
+     * inválido ou estiver em uso.
+     */
+    public void sendLogin(String name) {
+        send(ProtocolCodec.encodeLogin(name));
+    }
+
+    /**
+     * Pede os primeiros colocados do ranking; a resposta é {@link Protocol#LEADERBOARD}.
+     */
+    public void sendLeaderboardRequest(int count) {
+        send(ProtocolCodec.encodeLeaderboardRequest(count));
+    }
+
+    /**
+     * Valida a jogada localmente e, se for válida, aplica de forma otimista e envia com um número de sequência.
+     * Os ouvintes recebem {@link ServerEvent#PREDICTED_MOVE} imediatamente; jogadas inválidas geram um
+     * {@link Protocol#MOVE_REJECTED} local e não são enviadas.
+     * @return Se a jogada foi enviada
+     */
+    public boolean sendMove(int startRow, int startCol, int endRow, int endCol) {
+        ServerEvent event;
+        String message = null;
+        synchronized (this) {
+            boolean chainJump = state == TurnState.CHAIN_JUMP;
+            boolean samePiece = !chainJump || (startRow == chainRow && startCol == chainCol);
+            scratch.load(snapshot);
+            if ((state != TurnState.MY_TURN && !chainJump) || !samePiece
+                    || !scratch.isValidMove(startRow, startCol, endRow, endCol, playerId, chainJump)) {
+                event = new ServerEvent(Protocol.MOVE_REJECTED, "Movimento inválido.", new long[]{0});
+            } else {
+                int sequence = nextSequence++;
+                pendingMoves.add(new PendingMove(sequence, startRow, startCol, endRow, endCol, state));
+                scratch.performMove(startRow, startCol, endRow, endCol);
+
+                boolean wasJump = Board.isJump(Board.squareOf(startRow, startCol), Board.squareOf(endRow, endCol));
+                boolean continues = wasJump && scratch.canJumpFrom(endRow, endCol);
+                // Previsão do turno: continua em sequência de pulos ou passa para o oponente até o servidor confirmar
+                state = continues ? TurnState.CHAIN_JUMP : TurnState.OPPONENT_TURN;
+                chainRow = continues ? endRow : -1;
+                chainCol = continues ? endCol : -1;
+                snapshot = snapshot.withMove(startRow, startCol, endRow, endCol);
+
+                event = new ServerEvent(ServerEvent.PREDICTED_MOVE, "", new long[]{startRow, startCol, endRow, endCol, continues ? 1 : 0});
+                message = ProtocolCodec.encodeMove(startRow, startCol, endRow, endCol, sequence);
+            }
+        }
+        if (message != null) {
+            send(message);
+        }
+        notifyListeners(event);
+        return message != null;
+    }
+
+    public void sendChatMessage(String message) {
+        send(ProtocolCodec.encodeChat(message));
+    }
+
+    public void sendForfeit() {
+        send(Protocol.FORFEIT);
+    }
+
+    public void sendEndChainJump() {
+        send(Protocol.END_CHAIN_JUMP);
+    }
+
+    /**
+     * Pede uma página do histórico da conversa a partir do índice informado; as mensagens chegam como
+     * eventos {@link Protocol#CHAT_HISTORY}.
+     */
+    public void sendChatHistoryRequest(long fromIndex) {
+        send(ProtocolCodec.encodeChatHistoryRequest(fromIndex));
+    }
+
+    public void sendTargetsRequest(int row, int col) {
+        send(ProtocolCodec.encodeTargetsRequest(row, col));
+    }
+
+    private void send(String message) {
+        ClientConnection connection = this.connection;
+        if (connection != null) {
+            connection.send(message);
+        }
+    }
+
+    public BoardSnapshot getBoard() {
+        return snapshot;
+    }
+
+    public TurnState getState() {
+        return state;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public String getLastGameStats() {
+        return lastGameStats;
+    }
+
+    /**
+     * @return As mensagens do histórico recebidas até agora, em ordem
+     */
+    public synchronized List<String> getChatHistory() {
+        return new ArrayList<>(chatHistory.values());
+    }
+
+    private void handleLine(String line) {
+        ServerEvent event = ProtocolCodec.decode(line);
+        if (event != null) {
+            synchronized (this) {
+                event = apply(event);
+            }
+            if (event != null) {
+                notifyListeners(event);
+            }
+        }
+    }
+
+    private void handleDisconnect() {
+        String token = resumeToken;
+        resumeToken = null;
+        if (token != null && !closed && state != TurnState.GAME_OVER && reconnect(token)) {
+            return;
+        }
+        if (state != TurnState.GAME_OVER) {
+            state = TurnState.DISCONNECTED;
+        }
+        notifyListeners(ProtocolCodec.connectionLost());
+    }
+
+    // Roda na thread de leitura da conexão perdida; espera aleatória entre zero e o teto exponencial ("full jitter")
+    private boolean reconnect(String token) {
+        notifyListeners(new ServerEvent(ServerEvent.RECONNECTING, "Servidor reiniciando, reconectando...", new long[0]));
+        for (int attempt = 0; attempt < RECONNECT_ATTEMPTS && !closed; attempt++) {
+            long ceiling = Math.min(RECONNECT_MAX_MILLIS, RECONNECT_BASE_MILLIS << attempt);
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+                connection = new ClientConnection(serverAddress, port, this::handleLine, this::handleDisconnect);
+            } catch (IOException e) {
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            connection.start();
+            if (token.isEmpty()) {
+                // Nada a retomar: quem usa o motor volta a procurar partida
+                state = TurnState.WAITING_FOR_OPPONENT;
+                notifyListeners(new ServerEvent(ServerEvent.RECONNECTED, "", new long[0]));
+            } else {
+                send(ProtocolCodec.encodeResume(token));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Atualiza o espelho local e o estado do turno antes de avisar os ouvintes; retorna o evento a repassar, ou null
+    // se ele estiver superado pelas jogadas previstas
+    private ServerEvent apply(ServerEvent event) {
+        switch (event.getCommand()) {
+            case Protocol.WELCOME:
+                playerId = event.getInt(0);
+                break;
+            case Protocol.GAME_OVER_STATS:
+                lastGameStats = event.getText();
+                break;
+            case Protocol.RECONNECT:
+                resumeToken = event.getText();
+                break;
+            case Protocol.SESSION_RESUMED:
+                // Posição do servidor: as jogadas previstas da conexão anterior não foram confirmadas
+                confirmed.load(new BoardSnapshot(event.getLong(0), event.getLong(1), sideToMove));
+                pendingMoves.clear();
+                rebuildSnapshot();
+                break;
+            case Protocol.CHAT_HISTORY:
+                chatHistory.put(event.getLong(0), event.getText());
+                if (chatHistory.size() > MAX_CHAT_HISTORY) {
+                    chatHistory.pollFirstEntry();
+                }
+                break;
+            case Protocol.SET_TURN:
+                boolean isMyTurn = "YOUR_TURN".equals(event.getText());
+                state = isMyTurn ? TurnState.MY_TURN : TurnState.OPPONENT_TURN;
+                sideToMove = isMyTurn ? playerId : 3 - playerId;
+                chainRow = -1;
+                chainCol = -1;
+                rebuildSnapshot();
+                break;
+            case Protocol.VALID_MOVE:
+            case Protocol.JUMP_MOVE:
+                confirmed.performMove(event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3));
+                // Confirmações chegam só para quem jogou, na ordem de envio
+                PendingMove head = pendingMoves.peek();
+                if (head != null && (event.getValueCount() < 5 || event.getInt(4) == head.sequence)) {
+                    pendingMoves.poll();
+                    event = new ServerEvent(ServerEvent.MOVE_CONFIRMED, event.getText(), new long[]{
+                            event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3)});
+                }
+                rebuildSnapshot();
+                break;
+            case Protocol.OPPONENT_MOVED:
+                confirmed.performMove(event.getInt(0), event.getInt(1), event.getInt(2), event.getInt(3));
+                rebuildSnapshot();
+                break;
+            case Protocol.MOVE_REJECTED:
+                rollbackFrom(event.getInt(0));
+                break;
+            case Protocol.CHAIN_JUMP_OFFER:
+                // Com pulos previstos depois do ofertado, a oferta é antiga: a previsão vale até a confirmação
+                // ou a recusa, e a interface não deve oferecer o pulo de uma peça que já saiu dali
+                PendingMove last = pendingMoves.peekLast();
+                if (last != null && (last.endRow != event.getInt(0) || last.endCol != event.getInt(1))) {
+                    return null;
+                }
+                state = TurnState.CHAIN_JUMP;
+                chainRow = event.getInt(0);
+                chainCol = event.getInt(1);
+                break;
+            case Protocol.VICTORY:
+            case Protocol.DEFEAT:
+            case Protocol.OPPONENT_FORFEIT:
+                state = TurnState.GAME_OVER;
+                break;
+        }
+        return event;
+    }
+
+    // Desfaz a jogada recusada e todas as previstas depois dela, voltando ao estado de turno anterior a ela
+    private void rollbackFrom(int sequence) {
+        PendingMove rejected = null;
+        for (PendingMove pending : pendingMoves) {
+            if (pending.sequence == sequence) {
+                rejected = pending;
+                break;
+            }
+        }
+        if (rejected == null) {
+            return;
+        }
+        while (pendingMoves.peekLast() != rejected) {
+            pendingMoves.pollLast();
+        }
+        pendingMoves.pollLast();
+
+        state = rejected.stateBefore;
+        if (state == TurnState.CHAIN_JUMP) {
+            chainRow = rejected.startRow;
+            chainCol = rejected.startCol;
+        }
+        rebuildSnapshot();
+    }
+
+    // Posição exibida: a confirmada mais as jogadas ainda pendentes
+    private void rebuildSnapshot() {
+        BoardSnapshot rebuilt = confirmed.snapshot(sideToMove);
+        for (PendingMove pending : pendingMoves) {
+            rebuilt = rebuilt.withMove(pending.startRow, pending.startCol, pending.endRow, pending.endCol);
+        }
+        snapshot = rebuilt;
+    }
+
+    private void notifyListeners(ServerEvent event) {
+        BoardSnapshot board = snapshot;
+        TurnState current = state;
+        for (ClientListener listener : listeners) {
+            listener.onEvent(event, board, current);
+        }
+    }
+
+    // Jogada prevista aguardando a resposta do servidor
+    private static class PendingMove {
+        final int sequence;
+        final int startRow;
+        final int startCol;
+        final int endRow;
+        final int endCol;
+        final TurnState stateBefore;
+
+        PendingMove(int sequence, int startRow, int startCol, int endRow, int endCol, TurnState stateBefore) {
+            this.sequence = sequence;
+            this.startRow = startRow;
+            this.startCol = startCol;
+            this.endRow = endRow;
+            this.endCol = endCol;
+            this.stateBefore = stateBefore;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package client.core;
+
+import game.BoardSnapshot;
+
+/**
+ * Recebe os eventos do {@link ClientEngine}. Chamado na thread de leitura da conexão, depois que o motor já
+ * atualizou o tabuleiro espelho e o estado do turno; implementações com interface gráfica devem repassar o evento
+ * para a própria thread.
+ */
+public interface ClientListener {
+    /**
+     * @param event Mensagem decodificada
+     * @param board Posição do espelho local logo após aplicar o evento
+     * @param state Estado do turno logo após aplicar o evento
+     */
+    void onEvent(ServerEvent event, BoardSnapshot board, TurnState state);
+}
@@ -0,0 +1,133 @@
+package client.core;
+
+import game.Board;
+import shared.Protocol;
+
+/**
+ * Codifica os comandos do cliente e decodifica as mensagens do servidor, sem dependência de interface gráfica.
+ */
+public final class ProtocolCodec {
+    private ProtocolCodec() {
+    }
+
+    /**
+     * Decodifica uma linha recebida do servidor.
+     * @param message Linha no formato COMANDO:dados
+     * @return O evento, ou null se a linha estiver malformada
+     */
+    public static ServerEvent decode(String message) {
+        String[] parts = message.split(Protocol.SEPARATOR, 2);
+        String command = parts[0];
+        String text = parts.length > 1 ? parts[1] : "";
+
+        try {
+            switch (command) {
+                case Protocol.WELCOME:
+                case Protocol.ROOM_CREATED:
+                case Protocol.ROOM_JOINED:
+                    return new ServerEvent(command, text, new long[]{Integer.parseInt(text)});
+                case Protocol.VALID_MOVE:
+                case Protocol.OPPONENT_MOVED:
+                case Protocol.JUMP_MOVE:
+                case Protocol.CHAIN_JUMP_OFFER:
+                    return new ServerEvent(command, text, parseInts(text));
+                case Protocol.MOVE_REJECTED:
+                    String[] rejection = text.split(Protocol.SEPARATOR, 2);
+                    return new ServerEvent(command, rejection.length > 1 ? rejection[1] : "", new long[]{Integer.parseInt(rejection[0])});
+                case Protocol.SESSION_RESUMED:
+                    String[] position = text.split(Protocol.SEPARATOR);
+                    return new ServerEvent(command, text, new long[]{Long.parseLong(position[0]), Long.parseLong(position[1])});
+                case Protocol.CHAT_HISTORY:
+                    String[] entry = text.split(Protocol.SEPARATOR, 2);
+                    return new ServerEvent(command, entry.length > 1 ? entry[1] : "", new long[]{Long.parseLong(entry[0])});
+                case Protocol.TARGETS:
+                    // Listas vazias são preservadas com o limite negativo
+                    String[] targetData = text.split(Protocol.SEPARATOR, -1);
+                    return new ServerEvent(command, text, new long[]{
+                            Integer.parseInt(targetData[0]),
+                            Integer.parseInt(targetData[1]),
+                            parseSquares(targetData[2]),
+                            parseSquares(targetData[3])
+                    });
+                default:
+                    return new ServerEvent(command, text, new long[0]);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Mensagem malformada do servidor: " + message);
+            return null;
+        }
+    }
+
+    static ServerEvent connectionLost() {
+        return new ServerEvent(ServerEvent.CONNECTION_LOST, "Conexão com o servidor perdida.", new long[0]);
+    }
+
+    public static String encodeMove(int startRow, int startCol, int endRow, int endCol) {
+        return Protocol.MOVE + Protocol.SEPARATOR + startRow + Protocol.SEPARATOR + startCol + Protocol.SEPARATOR + endRow + Protocol.SEPARATOR + endCol;
+    }
+
+    /**
+     * Jogada com número de sequência: o servidor devolve o número na confirmação ou em MOVE_REJECTED.
+     */
+    public static String encodeMove(int startRow, int startCol, int endRow, int endCol, int sequence) {
+        return encodeMove(startRow, startCol, endRow, endCol) + Protocol.SEPARATOR + sequence;
+    }
+
+    public static String encodeChat(String message) {
+        return Protocol.CHAT + Protocol.SEPARATOR + message;
+    }
+
+    public static String encodeChatHistoryRequest(long fromIndex) {
+        return Protocol.CHAT_HISTORY_REQUEST + Protocol.SEPARATOR + fromIndex;
+    }
+
+    public static String encodeCreateRoom(String name) {
+        return Protocol.CREATE_ROOM + Protocol.SEPARATOR + name;
+    }
+
+    public static String encodeJoinRoom(int roomId) {
+        return Protocol.JOIN_ROOM + Protocol.SEPARATOR + roomId;
+    }
+
+    public static String encodeListRooms(int page) {
+        return Protocol.LIST_ROOMS + Protocol.SEPARATOR + page;
+    }
+
+    public static String encodeLogin(String name) {
+        return Protocol.LOGIN + Protocol.SEPARATOR + name;
+    }
+
+    public static String encodeLeaderboardRequest(int count) {
+        return Protocol.LEADERBOARD_REQUEST + Protocol.SEPARATOR + count;
+    }
+
+    public static String encodeResume(String token) {
+        return Protocol.RESUME + Protocol.SEPARATOR + token;
+    }
+
+    public static String encodeTargetsRequest(int row, int col) {
+        return Protocol.LEGAL_TARGETS + Protocol.SEPARATOR + row + Protocol.SEPARATOR + col;
+    }
+
+    private static long[] parseInts(String data) {
+        String[] fields = data.split(Protocol.SEPARATOR);
+        long[] values = new long[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = Integer.parseInt(fields[i]);
+        }
+        return values;
+    }
+
+    // Converte a lista "row,col;row,col" em uma máscara de bits (bit = row * Board.SIZE + col)
+    private static long parseSquares(String list) {
+        long squares = 0;
+        if (list.isEmpty()) {
+            return squares;
+        }
+        for (String square : list.split(";")) {
+            String[] rowCol = square.split(",");
+            squares |= 1L << Board.squareOf(Integer.parseInt(rowCol[0]), Integer.parseInt(rowCol[1]));
+        }
+        return squares;
+    }
+}
@@ -0,0 +1,51 @@
+package client.core;
+
+/**
+ * Mensagem do servidor já decodificada por {@link ProtocolCodec}. A decodificação (split e conversão de números)
+ * é feita na thread de rede, para que quem consome o evento só aplique o resultado.
+ */
+public final class ServerEvent {
+    // Evento local, não enviado pelo servidor, gerado quando a conexão cai
+    public static final String CONNECTION_LOST = "CONNECTION_LOST";
+    // Evento local: jogada própria aplicada de forma otimista, antes da resposta do servidor.
+    // Valores: coordenadas da jogada e 1 se a peça pode continuar pulando, senão 0
+    public static final String PREDICTED_MOVE = "PREDICTED_MOVE";
+    // Evento local: o servidor confirmou uma jogada prevista; o tabuleiro exibido já está correto
+    public static final String MOVE_CONFIRMED = "MOVE_CONFIRMED";
+    // Evento local: o servidor pediu reconexão e o motor está tentando voltar
+    public static final String RECONNECTING = "RECONNECTING";
+    // Evento local: reconectado sem partida a retomar; é preciso entrar no lobby de novo
+    public static final String RECONNECTED = "RECONNECTED";
+
+    private final String command;
+    // Conteúdo textual após o comando (ou string vazia)
+    private final String text;
+    // Valores numéricos do comando: coordenadas, id do jogador ou máscaras de casas
+    private final long[] values;
+
+    ServerEvent(String command, String text, long[] values) {
+        this.command = command;
+        this.text = text;
+        this.values = values;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getInt(int index) {
+        return (int) values[index];
+    }
+
+    public long getLong(int index) {
+        return values[index];
+    }
+
+    public int getValueCount() {
+        return values.length;
+    }
+}
@@ -0,0 +1,14 @@
+package client.core;
+
+/**
+ * Estados da partida do ponto de vista de um cliente.
+ */
+public enum TurnState {
+    DISCONNECTED,
+    WAITING_FOR_OPPONENT,
+    MY_TURN,
+    // Turno próprio após um pulo, com a oferta de continuar a sequência
+    CHAIN_JUMP,
+    OPPONENT_TURN,
+    GAME_OVER
+}
@@ -1,39 +1,152 @@
 package game;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
 /**
  * Gera o tabuleiro de tamanho 8, posiciona as peças de acordo com as cores e jogadores.
+ * As posições são guardadas em dois bitboards (um {@code long} por jogador, bit = row * SIZE + col), o que permite
+ * publicar {@link BoardSnapshot} imutáveis sem copiar o tabuleiro.
  */
 public class Board {
     public static final int SIZE = 8;
-    private final Piece[][] grid;
+    public static final int SQUARES = SIZE * SIZE;
+
+    // Bases iniciais: o destino de cada jogador é a base do oponente
+    public static final long PLAYER1_CAMP = bit(0, 0) | bit(0, 1) | bit(0, 2) | bit(1, 0) | bit(1, 1) | bit(1, 2)
+            | bit(2, 0) | bit(2, 1) | bit(3, 0);
+    public static final long PLAYER2_CAMP = bit(SIZE - 1, SIZE - 1) | bit(SIZE - 1, SIZE - 2) | bit(SIZE - 1, SIZE - 3)
+            | bit(SIZE - 2, SIZE - 1) | bit(SIZE - 2, SIZE - 2) | bit(SIZE - 2, SIZE - 3)
+            | bit(SIZE - 3, SIZE - 1) | bit(SIZE - 3, SIZE - 2) | bit(SIZE - 4, SIZE - 1);
+
+    // As peças não têm estado próprio além do dono, então uma instância por jogador é compartilhada
+    private static final Piece PLAYER1_PIECE = new Piece(1);
+    private static final Piece PLAYER2_PIECE = new Piece(2);
+
+    // Tabelas de vizinhança pré-calculadas por casa (índice = row * SIZE + col), já sem as casas fora do tabuleiro.
+    // Os vizinhos da casa s ficam em STEP_TARGET[STEP_START[s]] até STEP_TARGET[STEP_START[s + 1] - 1].
+    private static final int[] STEP_START = new int[SQUARES + 1];
+    private static final int[] STEP_TARGET;
+    // Pulos da casa s: JUMP_OVER[i] é a casa pulada e JUMP_LANDING[i] a casa de destino,
+    // para i de JUMP_START[s] até JUMP_START[s + 1] - 1
+    private static final int[] JUMP_START = new int[SQUARES + 1];
+    private static final int[] JUMP_OVER;
+    private static final int[] JUMP_LANDING;
+
+    static {
+        int[] steps = new int[SQUARES * 8];
+        int[] over = new int[SQUARES * 8];
+        int[] landing = new int[SQUARES * 8];
+        int stepCount = 0;
+        int jumpCount = 0;
+
+        for (int s = 0; s < SQUARES; s++) {
+            int row = s / SIZE;
+            int col = s % SIZE;
+            STEP_START[s] = stepCount;
+            JUMP_START[s] = jumpCount;
+
+            // As 8 direções (horizontal, vertical e diagonal)
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr == 0 && dc == 0) {
+                        continue;
+                    }
+                    if (isValidCoordinate(row + dr, col + dc)) {
+                        steps[stepCount++] = square(row + dr, col + dc);
+                    }
+                    if (isValidCoordinate(row + 2 * dr, col + 2 * dc)) {
+                        over[jumpCount] = square(row + dr, col + dc);
+                        landing[jumpCount++] = square(row + 2 * dr, col + 2 * dc);
+                    }
+                }
+            }
+        }
+        STEP_START[SQUARES] = stepCount;
+        JUMP_START[SQUARES] = jumpCount;
+
+        STEP_TARGET = Arrays.copyOf(steps, stepCount);
+        JUMP_OVER = Arrays.copyOf(over, jumpCount);
+        JUMP_LANDING = Arrays.copyOf(landing, jumpCount);
+    }
+
+    // Profundidade máxima da pilha de desfazer usada por makeMove/unmakeMove
+    public static final int MAX_UNDO_DEPTH = 1024;
+
+    // Chaves de Zobrist: uma por (jogador, casa) e uma por casa da peça em sequência de pulos.
+    // Semente fixa para que o mesmo hash identifique a mesma posição entre execuções (livro de aberturas, arquivos).
+    private static final long[] ZOBRIST_PIECE = new long[2 * SQUARES];
+    private static final long[] ZOBRIST_CHAIN = new long[SQUARES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x4A1A4A1AL);
+        for (int i = 0; i < ZOBRIST_PIECE.length; i++) {
+            ZOBRIST_PIECE[i] = random.nextLong();
+        }
+        for (int i = 0; i < ZOBRIST_CHAIN.length; i++) {
+            ZOBRIST_CHAIN[i] = random.nextLong();
+        }
+    }
+
+    // Entradas da pilha de desfazer: bits 0-5 origem, 6-11 destino, 12-18 casa da sequência anterior + 1,
+    // bit 19 indica que a entrada encerrou uma sequência de pulos em vez de mover uma peça
+    private static final int UNDO_END_CHAIN = 1 << 19;
+
+    private long player1Bits;
+    private long player2Bits;
+
+    private long hash;
+    private int player1InGoal;
+    private int player2InGoal;
+    // Casa da peça que acabou de pular e ainda pode continuar a sequência, ou -1
+    private int chainSquare = -1;
+
+    private final int[] undoMoves = new int[MAX_UNDO_DEPTH];
+    private final long[] undoHashes = new long[MAX_UNDO_DEPTH];
+    private int undoDepth = 0;
 
     public Board() {
-        grid = new Piece[SIZE][SIZE];
         setupPieces();
+        recomputeDerivedState();
+    }
+
+    /**
+     * Cria um tabuleiro mutável a partir de um snapshot, por exemplo para que um bot explore jogadas.
+     * @param snapshot Posição de origem
+     */
+    public Board(BoardSnapshot snapshot) {
+        this.player1Bits = snapshot.getPlayerBits(1);
+        this.player2Bits = snapshot.getPlayerBits(2);
+        recomputeDerivedState();
     }
 
     private void setupPieces() {
         // Player 1 (Peças pretas no canto superior esquerdo do tabuleiro)
-        grid[0][0] = new Piece(1);
-        grid[0][1] = new Piece(1);
-        grid[0][2] = new Piece(1);
-        grid[1][0] = new Piece(1);
-        grid[1][1] = new Piece(1);
-        grid[1][2] = new Piece(1);
-        grid[2][0] = new Piece(1);
-        grid[2][1] = new Piece(1);
-        grid[3][0] = new Piece(1);
+        player1Bits = PLAYER1_CAMP;
 
         // Player 2 (Peças brancas no canto inferior direito do tabuleiro)
-        grid[SIZE - 1][SIZE - 1] = new Piece(2);
-        grid[SIZE - 1][SIZE - 2] = new Piece(2);
-        grid[SIZE - 1][SIZE - 3] = new Piece(2);
-        grid[SIZE - 2][SIZE - 1] = new Piece(2);
-        grid[SIZE - 2][SIZE - 2] = new Piece(2);
-        grid[SIZE - 2][SIZE - 3] = new Piece(2);
-        grid[SIZE - 3][SIZE - 1] = new Piece(2);
-        grid[SIZE - 3][SIZE - 2] = new Piece(2);
-        grid[SIZE - 4][SIZE - 1] = new Piece(2);
+        player2Bits = PLAYER2_CAMP;
+    }
+
+    /**
+     * Substitui a posição pela do snapshot, descartando a pilha de desfazer e a sequência de pulos.
+     * @param snapshot Posição de origem
+     */
+    public void load(BoardSnapshot snapshot) {
+        player1Bits = snapshot.getPlayerBits(1);
+        player2Bits = snapshot.getPlayerBits(2);
+        chainSquare = -1;
+        undoDepth = 0;
+        recomputeDerivedState();
+    }
+
+    /**
+     * Captura a posição atual como um valor imutável.
+     * @param sideToMove Jogador da vez
+     * @return Snapshot que pode ser lido por outras threads sem sincronização
+     */
+    public BoardSnapshot snapshot(int sideToMove) {
+        return new BoardSnapshot(player1Bits, player2Bits, sideToMove);
     }
 
     /**
@@ -43,8 +156,15 @@ public class Board {
      * @return A peça se a posição for válida, senão, retorna null
      */
     public Piece getPieceAt(int row, int col) {
-        if (isValidCoordinate(row, col)) {
-            return grid[row][col];
+        if (!isValidCoordinate(row, col)) {
+            return null;
+        }
+        long mask = bit(row, col);
+        if ((player1Bits & mask) != 0) {
+            return PLAYER1_PIECE;
+        }
+        if ((player2Bits & mask) != 0) {
+            return PLAYER2_PIECE;
         }
         return null;
     }
@@ -59,12 +179,11 @@ public class Board {
      */
     public void performMove(int startRow, int startCol, int endRow, int endCol) {
         // Verificação de segurança da peça selecionada
-        if (getPieceAt(startRow, startCol) == null) {
+        if (getPieceAt(startRow, startCol) == null || !isValidCoordinate(endRow, endCol)
+                || getPieceAt(endRow, endCol) != null) {
             return;
         }
-        Piece piece = grid[startRow][startCol];
-        grid[startRow][startCol] = null;
-        grid[endRow][endCol] = piece;
+        applyMove(square(startRow, startCol), square(endRow, endCol));
     }
 
     /**
@@ -90,46 +209,262 @@ public class Board {
         if (!isValidMove(startRow, startCol, endRow, endCol, player, jumpOnly)) {
             return false;
         }
-        Piece piece = grid[startRow][startCol];
-        grid[startRow][startCol] = null;
-        grid[endRow][endCol] = piece;
+        applyMove(square(startRow, startCol), square(endRow, endCol));
         return true;
     }
 
-    // Verifica se o movimento enviado é válido
-    private boolean isValidMove(int startRow, int startCol, int endRow, int endCol, int player, boolean jumpOnly) {
+    // Move a peça entre as casas no bitboard do dono, sem validação, mantendo hash e contadores de destino
+    private void applyMove(int from, int to) {
+        long change = (1L << from) | (1L << to);
+        if ((player1Bits & (1L << from)) != 0) {
+            player1Bits ^= change;
+            hash ^= ZOBRIST_PIECE[from] ^ ZOBRIST_PIECE[to];
+            player1InGoal += (int) ((PLAYER2_CAMP >>> to) & 1) - (int) ((PLAYER2_CAMP >>> from) & 1);
+        } else {
+            player2Bits ^= change;
+            hash ^= ZOBRIST_PIECE[SQUARES + from] ^ ZOBRIST_PIECE[SQUARES + to];
+            player2InGoal += (int) ((PLAYER1_CAMP >>> to) & 1) - (int) ((PLAYER1_CAMP >>> from) & 1);
+        }
+    }
+
+    private void setChainSquare(int square) {
+        if (chainSquare >= 0) {
+            hash ^= ZOBRIST_CHAIN[chainSquare];
+        }
+        chainSquare = square;
+        if (square >= 0) {
+            hash ^= ZOBRIST_CHAIN[square];
+        }
+    }
+
+    // Recalcula do zero o hash e os contadores a partir dos bitboards
+    private void recomputeDerivedState() {
+        hash = 0;
+        for (long bits = player1Bits; bits != 0; bits &= bits - 1) {
+            hash ^= ZOBRIST_PIECE[Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = player2Bits; bits != 0; bits &= bits - 1) {
+            hash ^= ZOBRIST_PIECE[SQUARES + Long.numberOfTrailingZeros(bits)];
+        }
+        if (chainSquare >= 0) {
+            hash ^= ZOBRIST_CHAIN[chainSquare];
+        }
+        player1InGoal = Long.bitCount(player1Bits & PLAYER2_CAMP);
+        player2InGoal = Long.bitCount(player2Bits & PLAYER1_CAMP);
+    }
+
+    /**
+     * Executa uma jogada já validada (passo ou pulo simples) empilhando o necessário para desfazê-la.
+     * Após um pulo, a peça fica registrada como em sequência ({@link #getChainSquare()}); após um passo, não.
+     * Pensado para busca e análise: não valida nem aloca.
+     * @param from Casa inicial (row * SIZE + col)
+     * @param to Casa final (row * SIZE + col)
+     */
+    public void makeMove(int from, int to) {
+        pushUndo(from | (to << 6) | ((chainSquare + 1) << 12));
+        applyMove(from, to);
+        setChainSquare(isJump(from, to) ? to : -1);
+    }
+
+    /**
+     * Encerra a sequência de pulos atual (equivalente a END_CHAIN_JUMP), empilhando a entrada de desfazer.
+     */
+    public void makeEndChain() {
+        pushUndo(UNDO_END_CHAIN | ((chainSquare + 1) << 12));
+        setChainSquare(-1);
+    }
+
+    /**
+     * Desfaz a última chamada de {@link #makeMove} ou {@link #makeEndChain}, restaurando exatamente posição,
+     * hash, contadores de destino e estado da sequência de pulos.
+     */
+    public void unmakeMove() {
+        if (undoDepth == 0) {
+            throw new IllegalStateException("Não há jogadas para desfazer.");
+        }
+        undoDepth--;
+        int entry = undoMoves[undoDepth];
+        if ((entry & UNDO_END_CHAIN) == 0) {
+            applyMove(entry >>> 6 & 0x3F, entry & 0x3F);
+        }
+        chainSquare = (entry >>> 12 & 0x7F) - 1;
+        hash = undoHashes[undoDepth];
+    }
+
+    private void pushUndo(int entry) {
+        if (undoDepth == MAX_UNDO_DEPTH) {
+            throw new IllegalStateException("Pilha de desfazer cheia (" + MAX_UNDO_DEPTH + " jogadas).");
+        }
+        undoMoves[undoDepth] = entry;
+        undoHashes[undoDepth] = hash;
+        undoDepth++;
+    }
+
+    /**
+     * Destinos alcançáveis com uma única jogada (passo ou pulo) pela peça na casa informada.
+     * @param from Casa da peça (row * SIZE + col)
+     * @param jumpOnly Se verdadeiro, considera apenas pulos (sequência de pulos em andamento)
+     * @return Máscara de bits das casas de destino
+     */
+    public long getDirectTargets(int from, boolean jumpOnly) {
+        long occupied = player1Bits | player2Bits;
+        long targets = 0;
+        for (int i = JUMP_START[from], end = JUMP_START[from + 1]; i < end; i++) {
+            if ((occupied & (1L << JUMP_OVER[i])) != 0) {
+                targets |= 1L << JUMP_LANDING[i];
+            }
+        }
+        if (!jumpOnly) {
+            for (int i = STEP_START[from], end = STEP_START[from + 1]; i < end; i++) {
+                targets |= 1L << STEP_TARGET[i];
+            }
+        }
+        return targets & ~occupied;
+    }
+
+    /**
+     * Todas as casas onde a peça pode terminar uma sequência de pulos, incluindo as alcançáveis apenas com dois
+     * ou mais pulos seguidos. A casa de origem fica vazia durante a sequência.
+     * @param from Casa da peça (row * SIZE + col)
+     * @return Máscara de bits das casas de pouso, sem incluir a própria origem
+     */
+    public long getChainLandings(int from) {
+        long occupied = (player1Bits | player2Bits) & ~(1L << from);
+        long reached = 1L << from;
+        long frontier = reached;
+        while (frontier != 0) {
+            int square = Long.numberOfTrailingZeros(frontier);
+            frontier &= frontier - 1;
+            for (int i = JUMP_START[square], end = JUMP_START[square + 1]; i < end; i++) {
+                long landing = 1L << JUMP_LANDING[i];
+                if ((occupied & (1L << JUMP_OVER[i])) != 0 && (occupied & landing) == 0 && (reached & landing) == 0) {
+                    reached |= landing;
+                    frontier |= landing;
+                }
+            }
+        }
+        return reached & ~(1L << from);
+    }
+
+    /**
+     * Caminho de pulos simples que leva a peça de {@code from} até uma casa de {@link #getChainLandings}, para
+     * executar a sequência pulo a pulo (como exige o protocolo).
+     * @return As casas de pouso em ordem, terminando em {@code to}, ou null se {@code to} não for alcançável
+     */
+    public int[] getJumpPath(int from, int to) {
+        long occupied = (player1Bits | player2Bits) & ~(1L << from);
+        int[] parent = new int[SQUARES];
+        Arrays.fill(parent, -1);
+        long reached = 1L << from;
+        int[] queue = new int[SQUARES];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        while (head < tail && (reached & (1L << to)) == 0) {
+            int square = queue[head++];
+            for (int i = JUMP_START[square], end = JUMP_START[square + 1]; i < end; i++) {
+                int landing = JUMP_LANDING[i];
+                long landingBit = 1L << landing;
+                if ((occupied & (1L << JUMP_OVER[i])) != 0 && (occupied & landingBit) == 0 && (reached & landingBit) == 0) {
+                    reached |= landingBit;
+                    parent[landing] = square;
+                    queue[tail++] = landing;
+                }
+            }
+        }
+        if (to == from || (reached & (1L << to)) == 0) {
+            return null;
+        }
+
+        int length = 0;
+        for (int square = to; square != from; square = parent[square]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int square = to, i = length - 1; square != from; square = parent[square], i--) {
+            path[i] = square;
+        }
+        return path;
+    }
+
+    /**
+     * @return Se há uma peça entre as duas casas na mesma direção, isto é, se a jogada é um pulo
+     */
+    public static boolean isJump(int from, int to) {
+        for (int i = JUMP_START[from], end = JUMP_START[from + 1]; i < end; i++) {
+            if (JUMP_LANDING[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Bitboard das peças do jogador (bit = row * SIZE + col)
+     */
+    public long getPlayerBits(int player) {
+        return (player == 1) ? player1Bits : player2Bits;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return Quantas peças do jogador já estão na base de destino (0 a 9)
+     */
+    public int getGoalCount(int player) {
+        return (player == 1) ? player1InGoal : player2InGoal;
+    }
+
+    public int getChainSquare() {
+        return chainSquare;
+    }
+
+    public int getUndoDepth() {
+        return undoDepth;
+    }
+
+    /**
+     * Verifica se o movimento é válido sem alterar o tabuleiro, com as mesmas regras de {@link #movePiece}.
+     * Usado pelo cliente para validar localmente antes de enviar a jogada.
+     * @param jumpOnly Se verdadeiro, apenas movimentos de pulo são permitidos.
+     * @return Se a jogada seria aceita
+     */
+    public boolean isValidMove(int startRow, int startCol, int endRow, int endCol, int player, boolean jumpOnly) {
         // Validaçao básica
         if (!isValidCoordinate(startRow, startCol) || !isValidCoordinate(endRow, endCol)) {
             return false;
         }
+        int from = square(startRow, startCol);
+        int to = square(endRow, endCol);
+        long occupied = player1Bits | player2Bits;
 
-        if (grid[endRow][endCol] != null) {
+        if ((occupied & (1L << to)) != 0) {
             return false; // O endereço de destino deve ser null, não ter nenhuma peça
         }
 
-        Piece piece = grid[startRow][startCol];
-        if (piece == null || piece.getPlayerId() != player) {
+        long own = (player == 1) ? player1Bits : player2Bits;
+        if ((own & (1L << from)) == 0) {
             return false; // Um player só pode mexer se a peça for sua
         }
 
-        // Verifica se há movimento adjacente
-        int rowDiff = Math.abs(startRow - endRow);
-        int colDiff = Math.abs(startCol - endCol);
-        boolean isJump = (rowDiff == 2 && colDiff == 0) || (rowDiff == 0 && colDiff == 2) || (rowDiff == 2 && colDiff == 2);
-
-        if (isJump) {
-            int jumpedRow = startRow + (endRow - startRow) / 2;
-            int jumpedCol = startCol + (endCol - startCol) / 2;
-            // Um pulo é válido se houver uma peça para pular por cima.
-            return grid[jumpedRow][jumpedCol] != null;
+        // Um pulo é válido se houver uma peça para pular por cima
+        for (int i = JUMP_START[from], end = JUMP_START[from + 1]; i < end; i++) {
+            if (JUMP_LANDING[i] == to) {
+                return (occupied & (1L << JUMP_OVER[i])) != 0;
+            }
         }
 
         if (jumpOnly) {
             return false;
         }
 
-        if (rowDiff <= 1 && colDiff <= 1) {
-            return true; // Valida movimento adjacente
+        // Valida movimento adjacente
+        for (int i = STEP_START[from], end = STEP_START[from + 1]; i < end; i++) {
+            if (STEP_TARGET[i] == to) {
+                return true;
+            }
         }
 
         return false; // Invalid move
@@ -137,25 +472,15 @@ public class Board {
 
     // Sequência de pulos
     public boolean canJumpFrom(int row, int col) {
-        // Verifica as 8 direções para potenciais pulos
-        for (int r = -2; r <= 2; r += 2) {
-            for (int c = -2; c <= 2; c += 2) {
-                if (r == 0 && c == 0) {
-                    continue; // Pula o ponto central
-                }
-
-                int destRow = row + r;
-                int destCol = col + c;
-                int jumpedRow = row + r / 2;
-                int jumpedCol = col + c / 2;
-
-                // Verifica se o destino é válido e se está vazio
-                if (isValidCoordinate(destRow, destCol) && getPieceAt(destRow, destCol) == null) {
-                    // Verifica se há um peça para pular por cima
-                    if (isValidCoordinate(jumpedRow, jumpedCol) && getPieceAt(jumpedRow, jumpedCol) != null) {
-                        return true; // Foi encontrado um pulo válido
-                    }
-                }
+        if (!isValidCoordinate(row, col)) {
+            return false;
+        }
+        int from = square(row, col);
+        long occupied = player1Bits | player2Bits;
+        // Percorre apenas os pulos que cabem no tabuleiro a partir desta casa
+        for (int i = JUMP_START[from], end = JUMP_START[from + 1]; i < end; i++) {
+            if ((occupied & (1L << JUMP_LANDING[i])) == 0 && (occupied & (1L << JUMP_OVER[i])) != 0) {
+                return true; // Foi encontrado um pulo válido
             }
         }
         return false; // Pulos não foram encontrados
@@ -167,53 +492,28 @@ public class Board {
      * @return Se um jogador foi dado com ganhador depois de uma jogada
      */
     public boolean checkForWinner(int player) {
-        if (player == 1) { // Player 2
-            // Verifica se as peças do player 1 estão na posição inicial do player 2
-            if (getPieceAt(SIZE - 1, SIZE - 1) == null || getPieceAt(SIZE - 1, SIZE - 1).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 1, SIZE - 2) == null || getPieceAt(SIZE - 1, SIZE - 2).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 1, SIZE - 3) == null || getPieceAt(SIZE - 1, SIZE - 3).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 2, SIZE - 1) == null || getPieceAt(SIZE - 2, SIZE - 1).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 2, SIZE - 2) == null || getPieceAt(SIZE - 2, SIZE - 2).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 2, SIZE - 3) == null || getPieceAt(SIZE - 2, SIZE - 3).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 3, SIZE - 1) == null || getPieceAt(SIZE - 3, SIZE - 1).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 3, SIZE - 2) == null || getPieceAt(SIZE - 3, SIZE - 2).getPlayerId() != 1) {
-                return false;
-            }
-            if (getPieceAt(SIZE - 4, SIZE - 1) == null || getPieceAt(SIZE - 4, SIZE - 1).getPlayerId() != 1) {
-                return false;
-            }
-            return true;
-        } else { // Player 2
-            // Verifica se as peças do player 2 estão na posição inicial do player 1
-            if (getPieceAt(0, 0) == null || getPieceAt(0, 0).getPlayerId() != 2) return false;
-            if (getPieceAt(0, 1) == null || getPieceAt(0, 1).getPlayerId() != 2) return false;
-            if (getPieceAt(0, 2) == null || getPieceAt(0, 2).getPlayerId() != 2) return false;
-            if (getPieceAt(1, 0) == null || getPieceAt(1, 0).getPlayerId() != 2) return false;
-            if (getPieceAt(1, 1) == null || getPieceAt(1, 1).getPlayerId() != 2) return false;
-            if (getPieceAt(1, 2) == null || getPieceAt(1, 2).getPlayerId() != 2) return false;
-            if (getPieceAt(2, 0) == null || getPieceAt(2, 0).getPlayerId() != 2) return false;
-            if (getPieceAt(2, 1) == null || getPieceAt(2, 1).getPlayerId() != 2) return false;
-            if (getPieceAt(3, 0) == null || getPieceAt(3, 0).getPlayerId() != 2) return false;
-            return true;
-        }
+        // A base de destino tem 9 casas: vence quem ocupar todas
+        return getGoalCount(player) == Long.bitCount(PLAYER1_CAMP);
     }
 
     // Verifica se a coordenada é válida, estando dentro dos limites do tabuleiro
-    private boolean isValidCoordinate(int row, int col) {
+    private static boolean isValidCoordinate(int row, int col) {
         return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
     }
+
+    // Índice da casa nas tabelas pré-calculadas
+    private static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    /**
+     * @return O índice (row * SIZE + col) usado por makeMove e pelas tabelas do tabuleiro
+     */
+    public static int squareOf(int row, int col) {
+        return square(row, col);
+    }
+
+    private static long bit(int row, int col) {
+        return 1L << square(row, col);
+    }
 }
@@ -0,0 +1,88 @@
+package game;
+
+/**
+ * Posição imutável do tabuleiro 8x8: um bitboard por jogador e o jogador da vez. Como é um valor, pode ser
+ * publicado após cada jogada e lido por qualquer thread (espectadores, persistência, métricas, bots) sem
+ * sincronização. Jogadas produzem um novo snapshot em vez de alterar o atual.
+ */
+public final class BoardSnapshot {
+    private final long player1Bits;
+    private final long player2Bits;
+    private final int sideToMove;
+
+    public BoardSnapshot(long player1Bits, long player2Bits, int sideToMove) {
+        this.player1Bits = player1Bits;
+        this.player2Bits = player2Bits;
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * @return A posição inicial de uma partida, com o jogador 1 na vez
+     */
+    public static BoardSnapshot initial() {
+        return new BoardSnapshot(Board.PLAYER1_CAMP, Board.PLAYER2_CAMP, 1);
+    }
+
+    public long getPlayerBits(int player) {
+        return (player == 1) ? player1Bits : player2Bits;
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Retorna o dono da casa informada.
+     * @param row Linha
+     * @param col Coluna
+     * @return O id do jogador, ou 0 se a casa estiver vazia ou fora do tabuleiro
+     */
+    public int getOwnerAt(int row, int col) {
+        if (row < 0 || row >= Board.SIZE || col < 0 || col >= Board.SIZE) {
+            return 0;
+        }
+        long mask = 1L << (row * Board.SIZE + col);
+        if ((player1Bits & mask) != 0) return 1;
+        if ((player2Bits & mask) != 0) return 2;
+        return 0;
+    }
+
+    /**
+     * Aplica uma jogada já validada (equivalente a {@link Board#performMove}) e retorna a nova posição.
+     * O jogador da vez é mantido; use {@link #withSideToMove} na troca de turno.
+     */
+    public BoardSnapshot withMove(int startRow, int startCol, int endRow, int endCol) {
+        int owner = getOwnerAt(startRow, startCol);
+        if (owner == 0 || endRow < 0 || endRow >= Board.SIZE || endCol < 0 || endCol >= Board.SIZE
+                || getOwnerAt(endRow, endCol) != 0) {
+            return this;
+        }
+        long change = (1L << (startRow * Board.SIZE + startCol)) | (1L << (endRow * Board.SIZE + endCol));
+        if (owner == 1) {
+            return new BoardSnapshot(player1Bits ^ change, player2Bits, sideToMove);
+        }
+        return new BoardSnapshot(player1Bits, player2Bits ^ change, sideToMove);
+    }
+
+    public BoardSnapshot withSideToMove(int player) {
+        if (player == sideToMove) {
+            return this;
+        }
+        return new BoardSnapshot(player1Bits, player2Bits, player);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardSnapshot)) return false;
+        BoardSnapshot other = (BoardSnapshot) o;
+        return player1Bits == other.player1Bits && player2Bits == other.player2Bits && sideToMove == other.sideToMove;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(player1Bits);
+        result = 31 * result + Long.hashCode(player2Bits);
+        return 31 * result + sideToMove;
+    }
+}
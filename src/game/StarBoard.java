@@ -0,0 +1,272 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Variante estrela (Damas Chinesas): 121 casas em grade hexagonal, de 2 a 6 jogadores com 10 peças cada.
+ * As casas são identificadas por índice e as vizinhanças de passo e de pulo são pré-calculadas uma única vez em
+ * tabelas planas, então a validação não faz aritmética de coordenadas.
+ */
+public class StarBoard {
+    public static final int CELLS = 121;
+    public static final int MAX_PLAYERS = 6;
+    public static final int PIECES_PER_PLAYER = 10;
+    public static final int DIRECTIONS = 6;
+    private static final int CAMPS = 6;
+    private static final int RADIUS = 8;
+
+    // Direções hexagonais em coordenadas cúbicas (x, z), com y = -x - z
+    private static final int[] DIR_X = {1, 1, 0, -1, -1, 0};
+    private static final int[] DIR_Z = {0, -1, -1, 0, 1, 1};
+
+    // Coordenadas cúbicas de cada casa
+    private static final int[] CELL_X = new int[CELLS];
+    private static final int[] CELL_Z = new int[CELLS];
+    // NEIGHBOR[cell * DIRECTIONS + d]: casa vizinha na direção d, ou -1 fora do tabuleiro
+    private static final int[] NEIGHBOR = new int[CELLS * DIRECTIONS];
+    // JUMP_LANDING[cell * DIRECTIONS + d]: casa de pouso do pulo sobre NEIGHBOR na direção d, ou -1
+    private static final int[] JUMP_LANDING = new int[CELLS * DIRECTIONS];
+    // Ponta da estrela (0 a 5) de cada casa, ou -1 para o hexágono central
+    private static final int[] CAMP_OF = new int[CELLS];
+    private static final int[][] CAMP_CELLS = new int[CAMPS][PIECES_PER_PLAYER];
+
+    // Pontas usadas como base inicial de acordo com o número de jogadores
+    private static final int[][] SEAT_CAMPS = {
+            {},
+            {},
+            {0, 3},
+            {0, 2, 4},
+            {0, 1, 3, 4},
+            {0, 1, 2, 3, 4},
+            {0, 1, 2, 3, 4, 5}
+    };
+
+    static {
+        int span = 2 * RADIUS + 1;
+        int[] indexOf = new int[span * span];
+        Arrays.fill(indexOf, -1);
+
+        int[] campSize = new int[CAMPS];
+        int cell = 0;
+        for (int z = -RADIUS; z <= RADIUS; z++) {
+            for (int x = -RADIUS; x <= RADIUS; x++) {
+                if (!isOnStar(x, z)) {
+                    continue;
+                }
+                CELL_X[cell] = x;
+                CELL_Z[cell] = z;
+                indexOf[(z + RADIUS) * span + (x + RADIUS)] = cell;
+
+                int camp = campOf(x, z);
+                CAMP_OF[cell] = camp;
+                if (camp >= 0) {
+                    CAMP_CELLS[camp][campSize[camp]++] = cell;
+                }
+                cell++;
+            }
+        }
+
+        for (int c = 0; c < CELLS; c++) {
+            for (int d = 0; d < DIRECTIONS; d++) {
+                NEIGHBOR[c * DIRECTIONS + d] = lookup(indexOf, CELL_X[c] + DIR_X[d], CELL_Z[c] + DIR_Z[d]);
+                JUMP_LANDING[c * DIRECTIONS + d] = lookup(indexOf, CELL_X[c] + 2 * DIR_X[d], CELL_Z[c] + 2 * DIR_Z[d]);
+            }
+        }
+    }
+
+    // A estrela é a união de dois triângulos opostos em coordenadas cúbicas
+    private static boolean isOnStar(int x, int z) {
+        int y = -x - z;
+        return (x <= 4 && y <= 4 && z <= 4) || (x >= -4 && y >= -4 && z >= -4);
+    }
+
+    // As pontas são numeradas em sentido circular, então a ponta oposta de k é (k + 3) % 6
+    private static int campOf(int x, int z) {
+        int y = -x - z;
+        if (x > 4) return 0;
+        if (z < -4) return 1;
+        if (y > 4) return 2;
+        if (x < -4) return 3;
+        if (z > 4) return 4;
+        if (y < -4) return 5;
+        return -1;
+    }
+
+    private static int lookup(int[] indexOf, int x, int z) {
+        if (x < -RADIUS || x > RADIUS || z < -RADIUS || z > RADIUS || !isOnStar(x, z)) {
+            return -1;
+        }
+        return indexOf[(z + RADIUS) * (2 * RADIUS + 1) + (x + RADIUS)];
+    }
+
+    private final int playerCount;
+    // Dono de cada casa: 0 para vazia, ou o id do jogador (1 a playerCount)
+    private final byte[] cells = new byte[CELLS];
+
+    public StarBoard(int playerCount) {
+        if (playerCount < 2 || playerCount > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A variante estrela aceita de 2 a 6 jogadores: " + playerCount);
+        }
+        this.playerCount = playerCount;
+        setupPieces();
+    }
+
+    private void setupPieces() {
+        for (int player = 1; player <= playerCount; player++) {
+            for (int cell : CAMP_CELLS[getHomeCamp(player)]) {
+                cells[cell] = (byte) player;
+            }
+        }
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Ponta da estrela onde as peças do jogador começam.
+     * @param player Id do jogador (1 a playerCount)
+     * @return Índice da ponta, de 0 a 5
+     */
+    public int getHomeCamp(int player) {
+        return SEAT_CAMPS[playerCount][player - 1];
+    }
+
+    /**
+     * Ponta de destino do jogador, sempre a oposta à base inicial.
+     * @param player Id do jogador (1 a playerCount)
+     * @return Índice da ponta, de 0 a 5
+     */
+    public int getTargetCamp(int player) {
+        return (getHomeCamp(player) + 3) % CAMPS;
+    }
+
+    /**
+     * Retorna o dono da casa informada.
+     * @param cell Índice da casa
+     * @return O id do jogador, ou 0 se a casa estiver vazia ou fora do tabuleiro
+     */
+    public int getOwnerAt(int cell) {
+        if (isValidCell(cell)) {
+            return cells[cell];
+        }
+        return 0;
+    }
+
+    /**
+     * Altera o estado do tabuleiro sem validar a jogada, usado para espelhar jogadas já validadas pelo servidor.
+     * @param from Casa inicial
+     * @param to Casa final
+     */
+    public void performMove(int from, int to) {
+        // Verificação de segurança, como no tabuleiro 8x8: nunca sobrescreve a peça de outro jogador
+        if (getOwnerAt(from) == 0 || !isValidCell(to) || getOwnerAt(to) != 0) {
+            return;
+        }
+        cells[to] = cells[from];
+        cells[from] = 0;
+    }
+
+    /**
+     * Valida e executa a jogada.
+     * @param from Casa inicial
+     * @param to Casa final
+     * @param player Id do jogador que está movendo
+     * @param jumpOnly Se verdadeiro, apenas pulos são permitidos (sequência de pulos)
+     * @return Se o movimento era válido e foi executado
+     */
+    public boolean movePiece(int from, int to, int player, boolean jumpOnly) {
+        if (!isValidMove(from, to, player, jumpOnly)) {
+            return false;
+        }
+        cells[to] = cells[from];
+        cells[from] = 0;
+        return true;
+    }
+
+    private boolean isValidMove(int from, int to, int player, boolean jumpOnly) {
+        if (!isValidCell(from) || !isValidCell(to)) {
+            return false;
+        }
+        if (cells[to] != 0 || cells[from] != player) {
+            return false;
+        }
+
+        int base = from * DIRECTIONS;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            if (JUMP_LANDING[base + d] == to) {
+                // O pulo só é válido se houver uma peça na casa do meio
+                return cells[NEIGHBOR[base + d]] != 0;
+            }
+            if (!jumpOnly && NEIGHBOR[base + d] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se a jogada entre as duas casas é um pulo (duas casas na mesma direção).
+     */
+    public boolean isJump(int from, int to) {
+        if (!isValidCell(from)) {
+            return false;
+        }
+        int base = from * DIRECTIONS;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            if (JUMP_LANDING[base + d] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sequência de pulos
+    public boolean canJumpFrom(int cell) {
+        if (!isValidCell(cell)) {
+            return false;
+        }
+        int base = cell * DIRECTIONS;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int landing = JUMP_LANDING[base + d];
+            if (landing >= 0 && cells[landing] == 0 && cells[NEIGHBOR[base + d]] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Um jogador vence quando ocupa todas as casas da ponta oposta à sua base.
+     * @param player Id do jogador
+     * @return Se o jogador ocupou toda a ponta de destino
+     */
+    public boolean checkForWinner(int player) {
+        for (int cell : CAMP_CELLS[getTargetCamp(player)]) {
+            if (cells[cell] != player) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isValidCell(int cell) {
+        return cell >= 0 && cell < CELLS;
+    }
+
+    // Coordenadas cúbicas expostas para que os clientes desenhem o tabuleiro
+    public static int getCellX(int cell) {
+        return CELL_X[cell];
+    }
+
+    public static int getCellZ(int cell) {
+        return CELL_Z[cell];
+    }
+
+    /**
+     * @return A ponta da estrela (0 a 5) a que a casa pertence, ou -1 para o hexágono central
+     */
+    public static int getCampOf(int cell) {
+        return CAMP_OF[cell];
+    }
+}
@@ -0,0 +1,114 @@
+package server;
+
+import shared.Protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Histórico de conversa de uma sessão com memória limitada: guarda as últimas {@link #CAPACITY} mensagens em um
+ * buffer circular, corta mensagens longas e limita a taxa de envio de cada jogador com um {@link TokenBucket}.
+ * As mensagens são numeradas a partir de 0 desde o início da partida, para o histórico poder ser paginado.
+ * Não é thread-safe; é usado sob o monitor da sessão.
+ */
+public class ChatLog {
+    public static final int CAPACITY = 200;
+    public static final int MAX_MESSAGE_LENGTH = 300;
+    public static final int PAGE_SIZE = 50;
+    // Rajada de até 5 mensagens, depois uma por segundo
+    private static final int BURST = 5;
+    private static final double MESSAGES_PER_SECOND = 1.0;
+
+    private final String[] ring = new String[CAPACITY];
+    private final TokenBucket[] buckets;
+    private long total;
+
+    /**
+     * @param seats Quantidade de jogadores da sessão
+     */
+    public ChatLog(int seats) {
+        this(seats, System::nanoTime);
+    }
+
+    /**
+     * @param clock Relógio em nanossegundos usado no limite de taxa
+     */
+    public ChatLog(int seats, LongSupplier clock) {
+        buckets = new TokenBucket[seats];
+        for (int i = 0; i < seats; i++) {
+            buckets[i] = new TokenBucket(BURST, MESSAGES_PER_SECOND, clock);
+        }
+    }
+
+    /**
+     * Registra uma mensagem do jogador, cortada em {@link #MAX_MESSAGE_LENGTH} caracteres.
+     * @param seat Jogador que enviou, a partir de 1
+     * @return A mensagem formatada para repassar aos jogadores, ou null se o jogador excedeu o limite de taxa
+     */
+    public String post(int seat, String text) {
+        if (!buckets[seat - 1].tryAcquire()) {
+            return null;
+        }
+        if (text.length() > MAX_MESSAGE_LENGTH) {
+            // Não separa um par substituto (emoji e afins): o corte fica antes do caractere inteiro
+            int end = Character.isHighSurrogate(text.charAt(MAX_MESSAGE_LENGTH - 1))
+                    ? MAX_MESSAGE_LENGTH - 1 : MAX_MESSAGE_LENGTH;
+            text = text.substring(0, end);
+        }
+        String formatted = "Jogador " + seat + ": " + text;
+        ring[(int) (total % CAPACITY)] = formatted;
+        total++;
+        return formatted;
+    }
+
+    /**
+     * @return Total de mensagens da partida, incluindo as que já saíram do buffer
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Índice da mensagem mais antiga ainda guardada
+     */
+    public long getFirstIndex() {
+        return Math.max(0, total - CAPACITY);
+    }
+
+    /**
+     * Retorna até {@code count} mensagens a partir do índice informado. Índices que já saíram do buffer são
+     * avançados até a mensagem mais antiga disponível.
+     */
+    public List<String> page(long from, int count) {
+        long start = Math.max(from, getFirstIndex());
+        long end = Math.min(total, start + Math.max(0, count));
+        List<String> page = new ArrayList<>((int) Math.max(0, end - start));
+        for (long i = start; i < end; i++) {
+            page.add(ring[(int) (i % CAPACITY)]);
+        }
+        return page;
+    }
+
+    /**
+     * Envia uma página do histórico como linhas {@code CHAT_HISTORY:índice:mensagem}, uma por mensagem, em vez de
+     * uma única linha com todo o histórico.
+     */
+    public void sendPage(ClientHandler recipient, long from, int count) {
+        long index = Math.max(from, getFirstIndex());
+        for (String entry : page(from, count)) {
+            recipient.sendMessage(Protocol.CHAT_HISTORY + Protocol.SEPARATOR + index++ + Protocol.SEPARATOR + entry);
+        }
+    }
+
+    /**
+     * Atende a {@code CHAT_HISTORY_REQUEST:índice} com uma página de até {@link #PAGE_SIZE} mensagens.
+     */
+    public void handleHistoryRequest(ClientHandler requester, String fromData) {
+        try {
+            sendPage(requester, Long.parseLong(fromData.trim()), PAGE_SIZE);
+        } catch (NumberFormatException e) {
+            requester.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Pedido de histórico mal formatado.");
+        }
+    }
+}
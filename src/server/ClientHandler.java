@@ -2,53 +2,124 @@ package server;
 
 import shared.Protocol;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.charset.Charset;
 
 public class ClientHandler extends Thread {
+    // Limites de entrada por conexão, verificados antes de interpretar a mensagem ou tocar no lobby e na sessão
+    static final int MAX_FRAME_BYTES = 2048;
+    private static final int MESSAGE_BURST = 20;
+    private static final double MESSAGES_PER_SECOND = 10.0;
+    // Descartes tolerados por janela: um cliente que passa do limite de vez em quando não é desconectado, só quem
+    // insiste na enxurrada
+    private static final int MAX_DROPPED_MESSAGES = 200;
+    private static final double DROP_WINDOW_SECONDS = 60.0;
+
     private final Socket clientSocket;
+    private final Lobby lobby;
+    private final ConnectionLimiter limiter;
     private PrintWriter out;
-    private BufferedReader in;
-    private GameSession gameSession;
+    // Definida pela thread que completa a sala, lida pela thread deste cliente
+    private volatile Session gameSession;
+    // Identidade definida com LOGIN no lobby; null para jogadores anônimos, que não entram no ranking
+    private volatile String playerName;
+
+    public ClientHandler(Socket socket, Lobby lobby) {
+        this(socket, lobby, null);
+    }
 
-    public ClientHandler(Socket socket) {
+    /**
+     * @param limiter Limite por endereço onde a conexão foi adquirida; a vaga é liberada ao encerrar
+     */
+    public ClientHandler(Socket socket, Lobby lobby, ConnectionLimiter limiter) {
         this.clientSocket = socket;
+        this.lobby = lobby;
+        this.limiter = limiter;
+    }
+
+    // Para jogadores sem socket, como o LocalClientHandler
+    protected ClientHandler() {
+        this(null, null, null);
     }
 
-    public void setGameSession(GameSession gameSession) {
+    public void setGameSession(Session gameSession) {
         this.gameSession = gameSession;
     }
 
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
     @Override
     public void run() {
         try {
             out = new PrintWriter(clientSocket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+            LineReader in = new LineReader(clientSocket.getInputStream(), MAX_FRAME_BYTES, Charset.defaultCharset());
+            // Usado só por esta thread
+            TokenBucket messageBucket = new TokenBucket(MESSAGE_BURST, MESSAGES_PER_SECOND);
+            TokenBucket dropAllowance = new TokenBucket(MAX_DROPPED_MESSAGES, MAX_DROPPED_MESSAGES / DROP_WINDOW_SECONDS);
+            boolean throttled = false;
 
-            if (gameSession == null) {
-                sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Aguardando oponente...");
-            }
+            sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Conectado ao lobby.");
 
             String inputLine;
             while ((inputLine = in.readLine()) != null) {
-                if (gameSession != null) {
-                    gameSession.processMessage(inputLine, this);
+                if (!messageBucket.tryAcquire()) {
+                    // Descartada sem ser interpretada; o aviso vai uma vez por rajada
+                    if (!dropAllowance.tryAcquire()) {
+                        sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Conexão encerrada por excesso de mensagens.");
+                        break;
+                    }
+                    if (!throttled) {
+                        sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Mensagens demais; algumas foram descartadas.");
+                        throttled = true;
+                    }
+                    continue;
+                }
+                throttled = false;
+
+                // Até a partida começar, as mensagens vão para o lobby
+                Session session = gameSession;
+                if (session != null) {
+                    session.processMessage(inputLine, this);
+                } else {
+                    lobby.processMessage(inputLine, this);
                 }
             }
+        } catch (LineReader.FrameTooLongException e) {
+            sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Mensagem maior que " + MAX_FRAME_BYTES + " bytes; conexão encerrada.");
         } catch (IOException e) {
             System.out.println("Cliente desconectado: " + clientSocket.getInetAddress());
-            if (gameSession != null) {
-                gameSession.handleDisconnect(this);
-            }
         } finally {
+            connectionClosed();
             try {
                 clientSocket.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
+            if (limiter != null) {
+                limiter.release(clientSocket.getInetAddress());
+            }
+        }
+    }
+
+    /**
+     * Fim da conexão, por erro ou por fechamento normal: encerra a partida em andamento e retira o jogador do
+     * lobby. Jogadores sem socket chamam este método quando a conexão simulada cai.
+     */
+    protected void connectionClosed() {
+        Session session = gameSession;
+        if (session != null) {
+            session.handleDisconnect(this);
+        }
+        if (lobby != null) {
+            lobby.handleDisconnect(this);
         }
     }
 
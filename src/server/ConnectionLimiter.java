@@ -0,0 +1,43 @@
+package server;
+
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limite de conexões simultâneas por endereço IP, verificado no accept do {@link HalmaServer}, para que um único
+ * host não ocupe as threads e a memória do servidor. Thread-safe: o accept adquire e cada {@link ClientHandler}
+ * libera a sua vaga ao encerrar.
+ */
+public class ConnectionLimiter {
+    private final int maxPerAddress;
+    private final Map<InetAddress, Integer> connections = new HashMap<>();
+
+    public ConnectionLimiter(int maxPerAddress) {
+        this.maxPerAddress = maxPerAddress;
+    }
+
+    /**
+     * @return Se a conexão foi aceita; nesse caso, deve ser liberada com {@link #release}
+     */
+    public synchronized boolean tryAcquire(InetAddress address) {
+        int current = connections.getOrDefault(address, 0);
+        if (current >= maxPerAddress) {
+            return false;
+        }
+        connections.put(address, current + 1);
+        return true;
+    }
+
+    public synchronized void release(InetAddress address) {
+        Integer current = connections.get(address);
+        if (current == null) {
+            return;
+        }
+        if (current <= 1) {
+            connections.remove(address);
+        } else {
+            connections.put(address, current - 1);
+        }
+    }
+}
@@ -1,47 +1,108 @@
 package server;
 
 import game.Board;
+import game.BoardSnapshot;
 import shared.Protocol;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.StringJoiner;
+import java.util.function.LongSupplier;
 
-public class GameSession implements Runnable {
+public class GameSession implements Runnable, Session {
     private final ClientHandler player1;
     private final ClientHandler player2;
     private final Board board;
     private int currentPlayer;
+    // Última posição publicada; lida sem o monitor da sessão por espectadores, métricas e bots
+    private volatile BoardSnapshot snapshot;
 
     private int player1MoveCount = 0;
     private int player2MoveCount = 0;
     private int player1InvalidAttempts = 0;
     private int player2InvalidAttempts = 0;
-    private final List<String> chatHistory = new ArrayList<>();
+    private final ChatLog chatLog;
     private String winnerInfo = "O jogo encerrou inesperadamente.";
-    private boolean gameEnded = false;
+    private volatile boolean gameEnded = false;
+    private final StatsStore statsStore;
+    // Partida retomada de um SessionCheckpoint: o início anuncia a posição em vez de uma partida nova
+    private boolean resumed = false;
+
+    // Destinos legais das peças do jogador da vez, calculados uma vez por posição sob demanda.
+    // Para a casa s: targetCache[2 * s] são os destinos diretos e targetCache[2 * s + 1] os pousos de sequência.
+    private final long[] targetCache = new long[2 * Board.SQUARES];
+    private boolean targetCacheValid = false;
 
     private boolean isChainJumpActive = false;
     private int chainJumpRow;
     private int chainJumpCol;
 
     public GameSession(ClientHandler player1, ClientHandler player2) {
+        this(player1, player2, System::nanoTime);
+    }
+
+    /**
+     * @param clock Relógio em nanossegundos da sessão; o {@link SessionSimulator} passa um relógio virtual
+     */
+    public GameSession(ClientHandler player1, ClientHandler player2, LongSupplier clock) {
+        this(player1, player2, clock, null);
+    }
+
+    /**
+     * @param statsStore Onde registrar o resultado de partidas entre jogadores identificados, ou null
+     */
+    public GameSession(ClientHandler player1, ClientHandler player2, LongSupplier clock, StatsStore statsStore) {
         this.player1 = player1;
         this.player2 = player2;
+        this.chatLog = new ChatLog(2, clock);
+        this.statsStore = statsStore;
         this.board = new Board();
         this.currentPlayer = 1; // Jogador 1 inicia o jogo
+        this.snapshot = board.snapshot(currentPlayer);
 
         // Linka essa sessão de jogo para os jogadores
         this.player1.setGameSession(this);
         this.player2.setGameSession(this);
     }
 
+    /**
+     * Retoma uma partida interrompida pela drenagem de outro processo do servidor.
+     */
+    public GameSession(ClientHandler player1, ClientHandler player2, SessionCheckpoint checkpoint, StatsStore statsStore) {
+        this(player1, player2, System::nanoTime, statsStore);
+        board.load(new BoardSnapshot(checkpoint.player1Bits, checkpoint.player2Bits, checkpoint.currentPlayer));
+        currentPlayer = checkpoint.currentPlayer;
+        player1MoveCount = checkpoint.moveCounts[0];
+        player2MoveCount = checkpoint.moveCounts[1];
+        player1InvalidAttempts = checkpoint.invalidAttempts[0];
+        player2InvalidAttempts = checkpoint.invalidAttempts[1];
+        if (checkpoint.chainSquare >= 0) {
+            isChainJumpActive = true;
+            chainJumpRow = checkpoint.chainSquare / Board.SIZE;
+            chainJumpCol = checkpoint.chainSquare % Board.SIZE;
+        }
+        resumed = true;
+        publishSnapshot();
+    }
+
     @Override
     public void run() {
         // Notificando jogadores que o jogo esta iniciando
         player1.sendMessage(Protocol.WELCOME + Protocol.SEPARATOR + "1");
         player2.sendMessage(Protocol.WELCOME + Protocol.SEPARATOR + "2");
 
+        if (resumed) {
+            String position = Protocol.SESSION_RESUMED + Protocol.SEPARATOR + snapshot.getPlayerBits(1)
+                    + Protocol.SEPARATOR + snapshot.getPlayerBits(2);
+            player1.sendMessage(position);
+            player2.sendMessage(position);
+            updateTurn();
+            if (isChainJumpActive) {
+                ClientHandler current = currentPlayer == 1 ? player1 : player2;
+                current.sendMessage(Protocol.CHAIN_JUMP_OFFER + Protocol.SEPARATOR + chainJumpRow + Protocol.SEPARATOR + chainJumpCol);
+            }
+            return;
+        }
+
         player1.sendMessage(Protocol.OPPONENT_FOUND);
         player2.sendMessage(Protocol.OPPONENT_FOUND);
 
@@ -65,30 +126,57 @@ public class GameSession implements Runnable {
     // Realiza a troca de turno
     private void switchTurn() {
         currentPlayer = (currentPlayer == 1) ? 2 : 1;
+        publishSnapshot();
         updateTurn();
     }
 
+    // Publica a posição atual; chamado sob o monitor da sessão após cada alteração
+    private void publishSnapshot() {
+        snapshot = board.snapshot(currentPlayer);
+        targetCacheValid = false;
+    }
+
+    /**
+     * Posição mais recente da partida. Não bloqueia: pode ser chamado de qualquer thread enquanto jogadas
+     * estão sendo processadas.
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
     public synchronized void processMessage(String message, ClientHandler sender) {
+        if (gameEnded) return;
         String[] parts = message.split(Protocol.SEPARATOR, 2);
         String command = parts[0];
+        // Comandos sem argumentos chegam como dados vazios e são recusados como malformados
+        String data = parts.length > 1 ? parts[1] : "";
         int senderId = (sender == player1) ? 1 : 2;
 
         switch (command) {
             case Protocol.MOVE:
                 if (senderId == currentPlayer) {
-                    handleMove(parts[1], sender);
+                    handleMove(data, sender);
                 } else {
-                    sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Não é o seu turno.");
+                    rejectMove(sender, moveSequence(data), "Não é o seu turno.");
                     if (senderId == 1) player1InvalidAttempts++;
                     else player2InvalidAttempts++;
                 }
                 break;
             case Protocol.CHAT:
-                broadcastChat(parts[1], senderId);
+                if (parts.length > 1) {
+                    broadcastChat(parts[1], sender, senderId);
+                }
+                break;
+            case Protocol.CHAT_HISTORY_REQUEST:
+                chatLog.handleHistoryRequest(sender, parts.length > 1 ? parts[1] : "0");
                 break;
             case Protocol.FORFEIT:
                 handleForfeit(sender);
                 break;
+            case Protocol.LEGAL_TARGETS:
+                handleTargetsRequest(data, sender, senderId);
+                break;
             case Protocol.END_CHAIN_JUMP:
                 if (isChainJumpActive && senderId == currentPlayer) {
                     isChainJumpActive = false;
@@ -104,7 +192,30 @@ public class GameSession implements Runnable {
         }
     }
 
+    // Número de sequência opcional enviado como quinto campo do MOVE pelos clientes com previsão local
+    private static String moveSequence(String moveData) {
+        String[] coords = moveData.split(Protocol.SEPARATOR);
+        if (coords.length <= 4) {
+            return null;
+        }
+        try {
+            return String.valueOf(Integer.parseInt(coords[4]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Jogadas com número de sequência são recusadas com MOVE_REJECTED, para o cliente desfazer a previsão
+    private void rejectMove(ClientHandler sender, String sequence, String reason) {
+        if (sequence != null) {
+            sender.sendMessage(Protocol.MOVE_REJECTED + Protocol.SEPARATOR + sequence + Protocol.SEPARATOR + reason);
+        } else {
+            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + reason);
+        }
+    }
+
     private void handleMove(String moveData, ClientHandler sender) {
+        String sequence = moveSequence(moveData);
         try {
             String[] coords = moveData.split(Protocol.SEPARATOR);
             int startRow = Integer.parseInt(coords[0]);
@@ -113,9 +224,13 @@ public class GameSession implements Runnable {
             int endCol = Integer.parseInt(coords[3]);
             int senderId = (sender == player1) ? 1 : 2;
 
+            // O oponente recebe apenas as coordenadas; o remetente também recebe o número de sequência de volta
+            String coordData = startRow + Protocol.SEPARATOR + startCol + Protocol.SEPARATOR + endRow + Protocol.SEPARATOR + endCol;
+            String ackData = (sequence != null) ? coordData + Protocol.SEPARATOR + sequence : coordData;
+
             if (isChainJumpActive) {
                 if (startRow != chainJumpRow || startCol != chainJumpCol) {
-                    sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Você deve continuar pulando com a mesma peça.");
+                    rejectMove(sender, sequence, "Você deve continuar pulando com a mesma peça.");
                     return;
                 }
             }
@@ -123,6 +238,7 @@ public class GameSession implements Runnable {
             if (board.movePiece(startRow, startCol, endRow, endCol, currentPlayer, isChainJumpActive)) {
                 if (senderId == 1) player1MoveCount++;
                 else player2MoveCount++;
+                publishSnapshot();
 //                String moveMessage = Protocol.VALID_MOVE + Protocol.SEPARATOR + moveData;
 
                 boolean wasJump = Math.abs(startRow - endRow) > 1 || Math.abs(startCol - endCol) > 1;
@@ -137,25 +253,21 @@ public class GameSession implements Runnable {
                     chainJumpRow = endRow;
                     chainJumpCol = endCol;
 
-                    String jumpMessage = Protocol.JUMP_MOVE + Protocol.SEPARATOR + moveData;
+                    String jumpMessage = Protocol.JUMP_MOVE + Protocol.SEPARATOR + ackData;
                     sender.sendMessage(jumpMessage);
 
-                    opponent.sendMessage(Protocol.OPPONENT_MOVED + Protocol.SEPARATOR + moveData);
+                    opponent.sendMessage(Protocol.OPPONENT_MOVED + Protocol.SEPARATOR + coordData);
 
                     // Informa o jogador e aguarda a sua decisão
                     sender.sendMessage(Protocol.CHAIN_JUMP_OFFER + Protocol.SEPARATOR + endRow + Protocol.SEPARATOR + endCol);
                 } else {
                     isChainJumpActive = false;
 
-                    String moveMessage = Protocol.VALID_MOVE + Protocol.SEPARATOR + moveData;
+                    String moveMessage = Protocol.VALID_MOVE + Protocol.SEPARATOR + ackData;
                     sender.sendMessage(moveMessage);
-                    opponent.sendMessage(Protocol.OPPONENT_MOVED + Protocol.SEPARATOR + moveData);
+                    opponent.sendMessage(Protocol.OPPONENT_MOVED + Protocol.SEPARATOR + coordData);
 
                     if (board.checkForWinner(currentPlayer)) {
-                        if (gameEnded) return;
-                        gameEnded = true;
-
-                        opponent = (sender == player1) ? player2 : player1;
                         winnerInfo = "Jogador " + currentPlayer + " ganhou por chegar no destino!";
 
                         endGame(sender, opponent, Protocol.VICTORY, Protocol.DEFEAT);
@@ -167,24 +279,80 @@ public class GameSession implements Runnable {
             } else {
                 if (senderId == 1) player1InvalidAttempts++;
                 else player2InvalidAttempts++;
-                sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Movimento inválido.");
+                rejectMove(sender, sequence, "Movimento inválido.");
+            }
+        } catch (Exception e) {
+            rejectMove(sender, sequence, "Comando de movimento malformado.");
+        }
+    }
+
+    /**
+     * Responde com os destinos legais da peça selecionada: os alcançáveis com a próxima jogada e, separados, os
+     * que só são alcançáveis continuando uma sequência de pulos. Fora do turno, ou para peças de outro jogador,
+     * as listas vêm vazias.
+     */
+    private void handleTargetsRequest(String squareData, ClientHandler sender, int senderId) {
+        try {
+            String[] coords = squareData.split(Protocol.SEPARATOR);
+            int row = Integer.parseInt(coords[0]);
+            int col = Integer.parseInt(coords[1]);
+
+            long direct = 0;
+            long chain = 0;
+            if (senderId == currentPlayer && row >= 0 && row < Board.SIZE && col >= 0 && col < Board.SIZE) {
+                if (!targetCacheValid) {
+                    rebuildTargetCache();
+                }
+                int square = Board.squareOf(row, col);
+                direct = targetCache[2 * square];
+                chain = targetCache[2 * square + 1];
             }
+
+            sender.sendMessage(Protocol.TARGETS + Protocol.SEPARATOR + row + Protocol.SEPARATOR + col
+                    + Protocol.SEPARATOR + formatSquares(direct) + Protocol.SEPARATOR + formatSquares(chain));
         } catch (Exception e) {
-            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Comando de movimento malformado.");
+            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Comando de destinos malformado.");
         }
     }
 
-    private void broadcastChat(String chatMessage, int senderId) {
-        String formattedMessage = Protocol.CHAT_MESSAGE + Protocol.SEPARATOR + "Jogador " + senderId + ": " + chatMessage;
+    private void rebuildTargetCache() {
+        Arrays.fill(targetCache, 0);
+        long pieces = snapshot.getPlayerBits(currentPlayer);
+        if (isChainJumpActive) {
+            pieces = 1L << Board.squareOf(chainJumpRow, chainJumpCol);
+        }
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            long direct = board.getDirectTargets(square, isChainJumpActive);
+            targetCache[2 * square] = direct;
+            targetCache[2 * square + 1] = board.getChainLandings(square) & ~direct;
+        }
+        targetCacheValid = true;
+    }
+
+    // Lista de casas no formato "row,col;row,col"
+    private static String formatSquares(long squares) {
+        StringJoiner joiner = new StringJoiner(";");
+        for (; squares != 0; squares &= squares - 1) {
+            int square = Long.numberOfTrailingZeros(squares);
+            joiner.add(square / Board.SIZE + "," + square % Board.SIZE);
+        }
+        return joiner.toString();
+    }
+
+    private void broadcastChat(String chatMessage, ClientHandler sender, int senderId) {
+        String newFormattedMessage = chatLog.post(senderId, chatMessage);
+        if (newFormattedMessage == null) {
+            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Mensagens demais. Aguarde um pouco.");
+            return;
+        }
+        String formattedMessage = Protocol.CHAT_MESSAGE + Protocol.SEPARATOR + newFormattedMessage;
         player1.sendMessage(formattedMessage);
         player2.sendMessage(formattedMessage);
-        String newFormattedMessage = "Jogador " + senderId + ": " + chatMessage;
-        chatHistory.add(newFormattedMessage);
     }
 
     private void handleForfeit(ClientHandler forfeiter) {
         if (gameEnded) return;
-        gameEnded = true;
 
         ClientHandler winner = (forfeiter == player1) ? player2 : player1;
         int winnerId = (winner == player1) ? 1 : 2;
@@ -193,6 +361,12 @@ public class GameSession implements Runnable {
         endGame(winner, forfeiter, Protocol.OPPONENT_FORFEIT, Protocol.DEFEAT + Protocol.SEPARATOR + "Você desistiu da partida.");
     }
 
+    @Override
+    public boolean isFinished() {
+        return gameEnded;
+    }
+
+    @Override
     public synchronized void handleDisconnect(ClientHandler disconnectedPlayer) {
         if (gameEnded) return;
         gameEnded = true;
@@ -201,6 +375,7 @@ public class GameSession implements Runnable {
         int winnerId = (winner == player1) ? 1 : 2;
         winnerInfo = "Jogador " + winnerId + " ganhou porque o oponente se desconectou.";
         sendGameOverStats();
+        recordResult(winner);
 
         winner.sendMessage(Protocol.OPPONENT_FORFEIT);
 
@@ -208,6 +383,44 @@ public class GameSession implements Runnable {
         disconnectedPlayer.shutdown();
     }
 
+    /**
+     * Congela a partida para a drenagem do servidor: nenhuma mensagem é processada depois disto e nada é enviado
+     * aos jogadores até {@link #releasePlayers}, chamado depois de o checkpoint estar gravado.
+     * @return O estado da partida, ou null se ela já terminou
+     */
+    public synchronized SessionCheckpoint freeze() {
+        if (gameEnded) return null;
+        gameEnded = true;
+
+        int chainSquare = isChainJumpActive ? Board.squareOf(chainJumpRow, chainJumpCol) : -1;
+        return new SessionCheckpoint(new String[]{SessionCheckpoint.newToken(), SessionCheckpoint.newToken()},
+                snapshot.getPlayerBits(1), snapshot.getPlayerBits(2), currentPlayer, chainSquare,
+                new int[]{player1MoveCount, player2MoveCount}, new int[]{player1InvalidAttempts, player2InvalidAttempts},
+                new String[]{player1.getPlayerName(), player2.getPlayerName()});
+    }
+
+    /**
+     * Entrega a cada jogador o seu token de retomada e fecha as conexões; o cliente reconecta e envia RESUME.
+     */
+    public void releasePlayers(SessionCheckpoint checkpoint) {
+        player1.sendMessage(Protocol.RECONNECT + Protocol.SEPARATOR + checkpoint.tokens[0]);
+        player2.sendMessage(Protocol.RECONNECT + Protocol.SEPARATOR + checkpoint.tokens[1]);
+        shutdownAllConnections();
+    }
+
+    /**
+     * Encerra sem resultado uma partida congelada cujo checkpoint não pôde ser gravado; sem token, o cliente
+     * reconecta e volta para a fila do próximo processo.
+     */
+    public void abandon() {
+        String notice = Protocol.ERROR + Protocol.SEPARATOR + "O servidor reiniciou e não conseguiu guardar a partida.";
+        player1.sendMessage(notice);
+        player2.sendMessage(notice);
+        player1.sendMessage(Protocol.RECONNECT + Protocol.SEPARATOR);
+        player2.sendMessage(Protocol.RECONNECT + Protocol.SEPARATOR);
+        shutdownAllConnections();
+    }
+
     private void shutdownAllConnections() {
         player1.shutdown();
         player2.shutdown();
@@ -218,6 +431,7 @@ public class GameSession implements Runnable {
         gameEnded = true;
 
         sendGameOverStats();
+        recordResult(winner);
 
         winner.sendMessage(winMessage);
         if (!loseMessage.isEmpty()) {
@@ -227,8 +441,27 @@ public class GameSession implements Runnable {
         shutdownAllConnections();
     }
 
+    // Só partidas entre jogadores identificados contam; o StatsStore apenas atualiza a memória, sem disco
+    private void recordResult(ClientHandler winner) {
+        String name1 = player1.getPlayerName();
+        String name2 = player2.getPlayerName();
+        if (statsStore == null || name1 == null || name2 == null) {
+            return;
+        }
+        if (winner == player1) {
+            statsStore.recordGame(name1, name2, player1MoveCount, player1InvalidAttempts, player2MoveCount, player2InvalidAttempts);
+        } else {
+            statsStore.recordGame(name2, name1, player2MoveCount, player2InvalidAttempts, player1MoveCount, player1InvalidAttempts);
+        }
+    }
+
+    /**
+     * Envia o histórico guardado em linhas CHAT_HISTORY e depois as estatísticas no formato
+     * {@code vencedor:movimentos1:inválidos1:movimentos2:inválidos2:totalDeMensagens}.
+     */
     private void sendGameOverStats() {
-        String chatLog = String.join("|", chatHistory);
+        chatLog.sendPage(player1, 0, ChatLog.CAPACITY);
+        chatLog.sendPage(player2, 0, ChatLog.CAPACITY);
 
         StringJoiner stats = new StringJoiner(Protocol.SEPARATOR);
         stats.add(winnerInfo);
@@ -236,7 +469,7 @@ public class GameSession implements Runnable {
         stats.add(String.valueOf(player1InvalidAttempts));
         stats.add(String.valueOf(player2MoveCount));
         stats.add(String.valueOf(player2InvalidAttempts));
-        stats.add(chatLog);
+        stats.add(String.valueOf(chatLog.getTotal()));
 
         String message = Protocol.GAME_OVER_STATS + Protocol.SEPARATOR + stats.toString();
         player1.sendMessage(message);
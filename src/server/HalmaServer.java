@@ -1,42 +1,199 @@
 package server;
 
+import game.StarBoard;
+import shared.Protocol;
+import shared.Tls;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class HalmaServer {
     private static final int PORT = 12345;
-    private static final List<ClientHandler> waitingClients = new ArrayList<>();
+    private static final int MAX_CONNECTIONS_PER_ADDRESS = 8;
+    // Arquivo das estatísticas dos jogadores; o padrão fica no diretório atual
+    private static final String STATS_FILE_PROPERTY = "halma.stats";
+    // Arquivo das partidas interrompidas por um reinício e prazo para as partidas terminarem antes de serem gravadas
+    private static final String CHECKPOINT_FILE_PROPERTY = "halma.checkpoints";
+    private static final String DRAIN_SECONDS_PROPERTY = "halma.drain.seconds";
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    // Poucas threads para handshakes: uma onda de reconexões enfileira aqui em vez de disputar CPU com as partidas
+    private static final int HANDSHAKE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    // Fecha os sockets cujo handshake passa do prazo; o tempo limite de leitura sozinho não basta contra um cliente
+    // que envia um byte pouco antes de cada leitura expirar
+    private static final ScheduledExecutorService HANDSHAKE_DEADLINES = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "halma-handshake-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean starVariant = false;
+    private static int seatsPerGame = 2;
+    private static volatile boolean draining = false;
 
+    /**
+     * Inicia o servidor. Sem argumentos, as salas do lobby usam o tabuleiro 8x8; com {@code star [jogadores]},
+     * usam a variante estrela com 2 a 6 jogadores por partida. Com a propriedade {@link Tls#KEYSTORE_PROPERTY}
+     * definida, aceita apenas conexões TLS, com os handshakes feitos em um pool separado.
+     * <p>
+     * Ao receber SIGTERM o servidor drena: para de aceitar conexões, espera as partidas terminarem por até
+     * {@link #DRAIN_SECONDS_PROPERTY} segundos e grava as restantes para o próximo processo retomá-las.
+     */
     public static void main(String[] args) {
-        System.out.println("Halma Server em execução...");
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            while (true) {
-                Socket clientSocket = serverSocket.accept();
-                System.out.println("Novo cliente conectado: " + clientSocket.getInetAddress());
-                ClientHandler clientHandler = new ClientHandler(clientSocket);
+        if (args.length > 0 && Protocol.VARIANT_STAR.equalsIgnoreCase(args[0])) {
+            starVariant = true;
+            seatsPerGame = args.length > 1 ? Integer.parseInt(args[1]) : StarBoard.MAX_PLAYERS;
+            if (seatsPerGame < 2 || seatsPerGame > StarBoard.MAX_PLAYERS) {
+                System.err.println("Número de jogadores inválido para a variante estrela: " + seatsPerGame);
+                return;
+            }
+        }
 
-                clientHandler.start();
+        SSLContext tls;
+        try {
+            tls = Tls.serverContext();
+        } catch (IOException | GeneralSecurityException e) {
+            System.err.println("Não foi possível carregar o certificado TLS: " + e.getMessage());
+            return;
+        }
 
-                synchronized (waitingClients) {
-                    waitingClients.add(clientHandler);
-                    if (waitingClients.size() >= 2) {
-                        ClientHandler player1 = waitingClients.remove(0);
-                        ClientHandler player2 = waitingClients.remove(0);
+        StatsStore stats;
+        try {
+            stats = new StatsStore(Paths.get(System.getProperty(STATS_FILE_PROPERTY, "halma-stats.txt")));
+        } catch (IOException e) {
+            System.err.println("Não foi possível carregar as estatísticas: " + e.getMessage());
+            return;
+        }
 
-                        System.out.println("Pareando jogadores e iniciando nova partida.");
-                        GameSession gameSession = new GameSession(player1, player2);
-                        new Thread(gameSession).start();
+        Lobby lobby = new Lobby(starVariant, seatsPerGame, stats,
+                Paths.get(System.getProperty(CHECKPOINT_FILE_PROPERTY, "halma-checkpoints.txt")));
+        lobby.importCheckpoints();
+        ConnectionLimiter limiter = new ConnectionLimiter(MAX_CONNECTIONS_PER_ADDRESS);
+        ExecutorService handshakes = tls != null ? Executors.newFixedThreadPool(HANDSHAKE_THREADS) : null;
+        long drainMillis = Long.getLong(DRAIN_SECONDS_PROPERTY, 10) * 1000;
+        try (ServerSocket serverSocket = tls != null ? tls.getServerSocketFactory().createServerSocket(PORT) : new ServerSocket(PORT)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> drain(serverSocket, handshakes, lobby, stats, drainMillis)));
+            System.out.println("Halma Server em execução" + (tls != null ? " com TLS..." : "..."));
+            while (true) {
+                Socket clientSocket = serverSocket.accept();
+                InetAddress address = clientSocket.getInetAddress();
+                if (!limiter.tryAcquire(address)) {
+                    System.out.println("Conexão recusada, limite por endereço atingido: " + address);
+                    reject(clientSocket);
+                    continue;
+                }
+                System.out.println("Novo cliente conectado: " + address);
+                // Falhas de uma conexão (cliente que já caiu, pool encerrado pela drenagem) não derrubam o accept
+                try {
+                    // Mensagens curtas e interativas: sem o atraso de Nagle, que também retarda o handshake TLS
+                    clientSocket.setTcpNoDelay(true);
+                    // O pareamento é feito pelo lobby (QUICK_MATCH, CREATE_ROOM ou JOIN_ROOM)
+                    if (handshakes != null) {
+                        handshakes.execute(() -> completeHandshake((SSLSocket) clientSocket, lobby, limiter));
                     } else {
-                        //clientHandler.sendMessage(shared.Protocol.INFO + shared.Protocol.SEPARATOR + "Waiting for an opponent...");
+                        new ClientHandler(clientSocket, lobby, limiter).start();
                     }
+                } catch (IOException | RejectedExecutionException e) {
+                    System.out.println("Conexão descartada: " + address + " (" + e.getMessage() + ")");
+                    closeQuietly(clientSocket);
+                    limiter.release(address);
                 }
             }
         } catch (IOException e) {
-            System.err.println("Erro no servidor: " + e.getMessage());
-            e.printStackTrace();
+            if (!draining) {
+                System.err.println("Erro no servidor: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Encerramento ordenado: o socket fecha primeiro para que a porta fique livre para o próximo processo, e as
+    // estatísticas são gravadas por último, depois dos resultados das partidas que terminaram durante a espera
+    private static void drain(ServerSocket serverSocket, ExecutorService handshakes, Lobby lobby, StatsStore stats,
+                              long drainMillis) {
+        draining = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar o servidor: " + e.getMessage());
+        }
+        if (handshakes != null) {
+            handshakes.shutdown();
+        }
+        lobby.drain();
+        try {
+            if (lobby.awaitSessions(drainMillis) > 0) {
+                System.out.println(lobby.checkpointSessions() + " partidas gravadas para retomada.");
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar partidas interrompidas: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (handshakes != null) {
+                handshakes.awaitTermination(HANDSHAKE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            stats.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar estatísticas: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // O accept de um SSLServerSocket não faz o handshake; ele é feito aqui, com prazo total, antes de criar a thread
+    // do jogador
+    private static void completeHandshake(SSLSocket socket, Lobby lobby, ConnectionLimiter limiter) {
+        ScheduledFuture<?> deadline = HANDSHAKE_DEADLINES.schedule(() -> closeQuietly(socket),
+                HANDSHAKE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        try {
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            socket.startHandshake();
+            socket.setSoTimeout(0);
+            // Se o prazo venceu junto com o fim do handshake, o socket já está fechado
+            if (!deadline.cancel(false)) {
+                throw new IOException("prazo do handshake esgotado");
+            }
+        } catch (IOException e) {
+            deadline.cancel(false);
+            System.out.println("Handshake TLS falhou: " + socket.getInetAddress() + " (" + e.getMessage() + ")");
+            closeQuietly(socket);
+            limiter.release(socket.getInetAddress());
+            return;
+        }
+        new ClientHandler(socket, lobby, limiter).start();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar conexão: " + e.getMessage());
+        }
+    }
+
+    // Avisa e fecha sem criar thread; a mensagem cabe no buffer do socket, então a escrita não bloqueia o accept.
+    // Com TLS a escrita exigiria o handshake nesta thread, então a conexão é apenas fechada.
+    private static void reject(Socket socket) {
+        try (Socket rejected = socket) {
+            if (!(rejected instanceof SSLSocket)) {
+                PrintWriter out = new PrintWriter(rejected.getOutputStream(), true);
+                out.println(Protocol.ERROR + Protocol.SEPARATOR + "Conexões demais a partir deste endereço.");
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao recusar conexão: " + e.getMessage());
         }
     }
 }
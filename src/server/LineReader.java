@@ -0,0 +1,75 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Leitor de linhas com tamanho máximo para as mensagens dos clientes. Ao contrário de
+ * {@link java.io.BufferedReader#readLine()}, nunca acumula mais que {@code maxLineBytes}: uma linha maior é
+ * recusada com {@link FrameTooLongException} assim que passa do limite, sem ler o resto para a memória.
+ * Não é thread-safe; é usado apenas pela thread leitora da conexão.
+ */
+public class LineReader {
+    private final InputStream in;
+    private final Charset charset;
+    private final byte[] buffer = new byte[8192];
+    private final byte[] line;
+    private int position;
+    private int limit;
+
+    public LineReader(InputStream in, int maxLineBytes, Charset charset) {
+        this.in = in;
+        this.charset = charset;
+        this.line = new byte[maxLineBytes];
+    }
+
+    /**
+     * Lê a próxima linha, sem o terminador ({@code \n} ou {@code \r\n}).
+     * @return A linha, ou null no fim da conexão
+     * @throws FrameTooLongException Se a linha passar do tamanho máximo
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (position == limit) {
+                int read = in.read(buffer);
+                if (read < 0) {
+                    return length > 0 ? new String(line, 0, length, charset) : null;
+                }
+                position = 0;
+                limit = read;
+            }
+
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            int chunk = position - start;
+            if (length + chunk > line.length) {
+                throw new FrameTooLongException(line.length);
+            }
+            System.arraycopy(buffer, start, line, length, chunk);
+            length += chunk;
+
+            if (position < limit) {
+                position++;
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                return new String(line, 0, length, charset);
+            }
+        }
+    }
+
+    /**
+     * Linha recebida maior que o limite do leitor.
+     */
+    public static class FrameTooLongException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public FrameTooLongException(int maxLineBytes) {
+            super("Linha maior que " + maxLineBytes + " bytes.");
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package server;
+
+import game.StarBoard;
+import shared.Protocol;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro de salas e partidas em andamento. Trata os comandos dos jogadores que ainda não estão em uma partida:
+ * {@link Protocol#CREATE_ROOM}, {@link Protocol#JOIN_ROOM}, {@link Protocol#QUICK_MATCH},
+ * {@link Protocol#LEAVE_ROOM} e {@link Protocol#LIST_ROOMS}, além da identificação ({@link Protocol#LOGIN}) e do
+ * ranking ({@link Protocol#LEADERBOARD_REQUEST}), servido da memória pelo {@link StatsStore}.
+ * <p>
+ * Na drenagem do servidor o lobby para de parear, espera as partidas terminarem e grava as restantes como
+ * {@link SessionCheckpoint}; os jogadores recebem um token e o processo seguinte retoma a partida quando os dois
+ * enviam {@link Protocol#RESUME}.
+ * <p>
+ * A listagem é servida de um snapshot imutável com as páginas já formatadas, reconstruído no máximo a cada
+ * {@link #LISTING_REFRESH_MILLIS} ms por uma única thread. Muitos clientes consultando o lobby apenas leem um
+ * campo volátil, sem tocar nos monitores das salas ou das sessões.
+ */
+public class Lobby {
+    public static final int PAGE_SIZE = 20;
+    static final long LISTING_REFRESH_MILLIS = 250;
+    // Varredura das salas encerradas, independente de alguém pedir a listagem
+    private static final long ROOM_SWEEP_SECONDS = 5;
+    private static final int MAX_NAME_LENGTH = 32;
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+    private static final int DEFAULT_LEADERBOARD_SIZE = 10;
+    private static final String PLAYER_NAME_PATTERN = "[A-Za-z0-9_-]{1,20}";
+    // Prazo para os dois jogadores de uma partida interrompida voltarem; depois, quem voltou vence
+    private static final long RESUME_TIMEOUT_SECONDS = 60;
+    // Intervalo mínimo entre importações pedidas por tokens desconhecidos, que qualquer cliente pode enviar
+    private static final long IMPORT_INTERVAL_MILLIS = 1000;
+
+    private final boolean starVariant;
+    private final int seatsPerGame;
+    private final StatsStore stats;
+    private final Path checkpointFile;
+    private final ConcurrentHashMap<Integer, Room> rooms = new ConcurrentHashMap<>();
+    // Sala em que o jogador aguarda, até a partida começar
+    private final ConcurrentHashMap<ClientHandler, Room> waiting = new ConcurrentHashMap<>();
+    // Nomes em uso por conexões abertas: o mesmo jogador não pode jogar contra si mesmo
+    private final ConcurrentHashMap<String, ClientHandler> online = new ConcurrentHashMap<>();
+    // Partidas interrompidas aguardando os jogadores, por token de retomada, e as já retomadas em andamento
+    private final ConcurrentHashMap<String, PendingResume> resumable = new ConcurrentHashMap<>();
+    private final Set<GameSession> resumedSessions = ConcurrentHashMap.newKeySet();
+    // Partida interrompida de cada jogador que enviou RESUME; mantida até ele sair do lobby ou desconectar
+    private final ConcurrentHashMap<ClientHandler, PendingResume> resuming = new ConcurrentHashMap<>();
+    // Jogadores com token desconhecido aguardando a próxima importação permitida
+    private final Set<ClientHandler> lookingUp = ConcurrentHashMap.newKeySet();
+    // Serializa as importações: quem chega durante uma espera por ela em vez de achar o arquivo já reivindicado
+    private final Object importLock = new Object();
+    private long lastImportNanos;
+    // Tarefas periódicas do lobby: varredura das salas e prazo das partidas interrompidas
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "halma-lobby");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean draining = false;
+    private final AtomicInteger nextRoomId = new AtomicInteger(1);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Object quickMatchLock = new Object();
+    private Room quickMatchRoom;
+
+    private volatile Listing listing = new Listing(new String[]{""}, 0, System.nanoTime());
+
+    /**
+     * @param starVariant Se as salas usam a variante estrela
+     * @param seatsPerGame Assentos padrão das salas (sempre 2 no tabuleiro 8x8)
+     * @param stats Ratings e estatísticas dos jogadores identificados
+     * @param checkpointFile Arquivo onde a drenagem grava as partidas interrompidas e de onde elas são retomadas
+     */
+    public Lobby(boolean starVariant, int seatsPerGame, StatsStore stats, Path checkpointFile) {
+        this.starVariant = starVariant;
+        this.seatsPerGame = seatsPerGame;
+        this.stats = stats;
+        this.checkpointFile = checkpointFile;
+        this.lastImportNanos = System.nanoTime() - IMPORT_INTERVAL_MILLIS * 1_000_000;
+        maintenance.scheduleWithFixedDelay(this::sweepRooms, ROOM_SWEEP_SECONDS, ROOM_SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void processMessage(String message, ClientHandler sender) {
+        String[] parts = message.split(Protocol.SEPARATOR, 2);
+        String data = parts.length > 1 ? parts[1] : "";
+
+        if (draining && (Protocol.QUICK_MATCH.equals(parts[0]) || Protocol.CREATE_ROOM.equals(parts[0])
+                || Protocol.JOIN_ROOM.equals(parts[0]))) {
+            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Servidor reiniciando; tente de novo em instantes.");
+            return;
+        }
+
+        switch (parts[0]) {
+            case Protocol.QUICK_MATCH:
+                quickMatch(sender);
+                break;
+            case Protocol.CREATE_ROOM:
+                createRoom(data, sender);
+                break;
+            case Protocol.JOIN_ROOM:
+                joinRoom(data, sender);
+                break;
+            case Protocol.LEAVE_ROOM:
+                leave(sender);
+                sender.sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Você saiu da sala.");
+                break;
+            case Protocol.LIST_ROOMS:
+                sendListing(data, sender);
+                break;
+            case Protocol.LOGIN:
+                login(data.trim(), sender);
+                break;
+            case Protocol.LEADERBOARD_REQUEST:
+                sendLeaderboard(data, sender);
+                break;
+            case Protocol.RESUME:
+                resume(data.trim(), sender, true);
+                break;
+            default:
+                sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Entre em uma sala antes de jogar.");
+                break;
+        }
+    }
+
+    /**
+     * Retira do lobby um jogador que se desconectou antes de a partida começar.
+     */
+    public void handleDisconnect(ClientHandler player) {
+        lookingUp.remove(player);
+        // A partida retomada pode ter começado depois de a conexão consultar a sua sessão: encerra aqui
+        GameSession resumed = leaveResume(player);
+        if (resumed != null) {
+            resumed.handleDisconnect(player);
+        }
+        leave(player);
+        String name = player.getPlayerName();
+        if (name != null) {
+            online.remove(name, player);
+        }
+    }
+
+    // Entra na sala de pareamento automático, criando outra quando a atual enche
+    private void quickMatch(ClientHandler player) {
+        leave(player);
+        Room room;
+        synchronized (quickMatchLock) {
+            // A sala pode ter sido removida do registro por ficar vazia
+            if (quickMatchRoom == null || rooms.get(quickMatchRoom.getId()) != quickMatchRoom
+                    || !enter(quickMatchRoom, player)) {
+                quickMatchRoom = newRoom("Partida rápida", seatsPerGame);
+                enter(quickMatchRoom, player);
+                rooms.put(quickMatchRoom.getId(), quickMatchRoom);
+            }
+            room = quickMatchRoom;
+        }
+        if (room.getPlayerCount() < room.getSeats()) {
+            player.sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Aguardando oponente...");
+        }
+    }
+
+    // CREATE_ROOM:nome[:assentos]; assentos só podem ser escolhidos na variante estrela
+    private void createRoom(String data, ClientHandler player) {
+        String[] fields = data.split(Protocol.SEPARATOR);
+        int seats = seatsPerGame;
+        if (starVariant && fields.length > 1) {
+            try {
+                seats = Integer.parseInt(fields[1].trim());
+            } catch (NumberFormatException e) {
+                seats = -1;
+            }
+            if (seats < 2 || seats > StarBoard.MAX_PLAYERS) {
+                player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Número de jogadores inválido.");
+                return;
+            }
+        }
+
+        leave(player);
+        Room room = newRoom(sanitizeName(fields[0]), seats);
+        player.sendMessage(Protocol.ROOM_CREATED + Protocol.SEPARATOR + room.getId());
+        enter(room, player);
+        // Registrada já com o criador, para a limpeza de salas vazias não removê-la
+        rooms.put(room.getId(), room);
+        player.sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Aguardando oponente...");
+    }
+
+    private void joinRoom(String data, ClientHandler player) {
+        Room room;
+        try {
+            room = rooms.get(Integer.parseInt(data.trim()));
+        } catch (NumberFormatException e) {
+            room = null;
+        }
+        if (room == null) {
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Sala inexistente.");
+            return;
+        }
+
+        leave(player);
+        if (!enter(room, player)) {
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "A sala está cheia ou já em jogo.");
+        } else if (room.getPlayerCount() < room.getSeats()) {
+            player.sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Aguardando oponente...");
+        }
+    }
+
+    private boolean enter(Room room, ClientHandler player) {
+        waiting.put(player, room);
+        if (!room.join(player)) {
+            waiting.remove(player, room);
+            return false;
+        }
+        if (room.getState() != Room.State.OPEN) {
+            // A partida começou: os jogadores dela deixam de aguardar
+            for (ClientHandler member : room.getMembers()) {
+                waiting.remove(member, room);
+            }
+        }
+        return true;
+    }
+
+    private void leave(ClientHandler player) {
+        Room room = waiting.remove(player);
+        if (room != null) {
+            room.leave(player);
+        }
+        leaveResume(player);
+        lookingUp.remove(player);
+    }
+
+    // Libera o assento do jogador na partida interrompida que ele aguarda; retorna a partida se ela já recomeçou
+    private GameSession leaveResume(ClientHandler player) {
+        PendingResume pending = resuming.remove(player);
+        return pending != null ? pending.leave(player) : null;
+    }
+
+    private Room newRoom(String name, int seats) {
+        return new Room(nextRoomId.getAndIncrement(), name, seats, starVariant, stats);
+    }
+
+    /**
+     * Início da drenagem: recusa novos pareamentos e manda os jogadores que aguardam em salas reconectarem,
+     * já que a partida deles ainda não começou.
+     */
+    public void drain() {
+        draining = true;
+        for (ClientHandler player : new ArrayList<>(waiting.keySet())) {
+            leave(player);
+            player.sendMessage(Protocol.RECONNECT + Protocol.SEPARATOR);
+            player.shutdown();
+        }
+    }
+
+    /**
+     * Espera as partidas em andamento terminarem.
+     * @return Quantas ainda estão em andamento ao fim do prazo
+     */
+    public int awaitSessions(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        int live;
+        while ((live = liveSessions().size()) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        return live;
+    }
+
+    /**
+     * Congela as partidas de 2 jogadores ainda em andamento, grava os checkpoints e só então entrega os tokens,
+     * para que um jogador rápido nunca reconecte antes de o próximo processo poder encontrar a sua partida. Se a
+     * gravação falhar, as partidas congeladas são encerradas sem resultado.
+     * @return Quantas partidas foram gravadas
+     */
+    public int checkpointSessions() throws IOException {
+        List<GameSession> frozen = new ArrayList<>();
+        List<SessionCheckpoint> checkpoints = new ArrayList<>();
+        for (Session session : liveSessions()) {
+            if (session instanceof GameSession) {
+                SessionCheckpoint checkpoint = ((GameSession) session).freeze();
+                if (checkpoint != null) {
+                    frozen.add((GameSession) session);
+                    checkpoints.add(checkpoint);
+                }
+            }
+        }
+        if (!checkpoints.isEmpty()) {
+            try {
+                SessionCheckpoint.append(checkpointFile, checkpoints);
+            } catch (IOException e) {
+                // Sem checkpoint não há o que retomar: os jogadores são liberados em vez de ficarem presos na
+                // partida congelada
+                for (GameSession session : frozen) {
+                    session.abandon();
+                }
+                throw e;
+            }
+        }
+        for (int i = 0; i < frozen.size(); i++) {
+            frozen.get(i).releasePlayers(checkpoints.get(i));
+        }
+        return checkpoints.size();
+    }
+
+    private List<Session> liveSessions() {
+        List<Session> live = new ArrayList<>();
+        for (Room room : rooms.values()) {
+            Session session = room.getSession();
+            if (session != null && !session.isFinished()) {
+                live.add(session);
+            }
+        }
+        resumedSessions.removeIf(Session::isFinished);
+        live.addAll(resumedSessions);
+        return live;
+    }
+
+    /**
+     * Carrega as partidas gravadas pela drenagem de outro processo. Chamado na inicialização e de novo quando chega
+     * um token desconhecido, pois o processo antigo pode gravar depois de o novo já ter iniciado.
+     */
+    public void importCheckpoints() {
+        synchronized (importLock) {
+            lastImportNanos = System.nanoTime();
+            List<SessionCheckpoint> checkpoints;
+            try {
+                checkpoints = SessionCheckpoint.consume(checkpointFile);
+            } catch (IOException e) {
+                System.err.println("Erro ao ler partidas interrompidas: " + e.getMessage());
+                return;
+            }
+            for (SessionCheckpoint checkpoint : checkpoints) {
+                PendingResume pending = new PendingResume(checkpoint);
+                resumable.put(checkpoint.tokens[0], pending);
+                resumable.put(checkpoint.tokens[1], pending);
+                maintenance.schedule(() -> expire(pending), RESUME_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            if (!checkpoints.isEmpty()) {
+                System.out.println(checkpoints.size() + " partidas interrompidas aguardando os jogadores.");
+            }
+        }
+    }
+
+    /**
+     * Importa se a última importação foi há mais de {@link #IMPORT_INTERVAL_MILLIS} ms.
+     * @return Zero se importou, senão quantos ms faltam para a próxima importação permitida
+     */
+    private long importIfDue() {
+        synchronized (importLock) {
+            long remaining = IMPORT_INTERVAL_MILLIS - (System.nanoTime() - lastImportNanos) / 1_000_000;
+            if (remaining > 0) {
+                return remaining;
+            }
+            importCheckpoints();
+            return 0;
+        }
+    }
+
+    // RESUME:token; a partida recomeça quando os dois jogadores voltam
+    private void resume(String token, ClientHandler player, boolean mayRetry) {
+        PendingResume pending = resumable.get(token);
+        if (pending == null) {
+            long waitMillis = importIfDue();
+            pending = resumable.get(token);
+            if (pending == null && waitMillis > 0 && mayRetry && lookingUp.add(player)) {
+                // Importação recente demais: procura de novo quando a próxima for permitida, se o jogador ainda
+                // estiver no lobby
+                maintenance.schedule(() -> {
+                    if (lookingUp.remove(player)) {
+                        resume(token, player, false);
+                    }
+                }, waitMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        if (pending == null) {
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Partida não encontrada.");
+            return;
+        }
+
+        leave(player);
+        resuming.put(player, pending);
+        if (!pending.join(token, player)) {
+            // Token reutilizado ou RESUME repetido: a partida já recomeçou ou foi encerrada pelo prazo
+            resuming.remove(player, pending);
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Esta partida já foi retomada.");
+            return;
+        }
+        GameSession session = pending.startIfReady();
+        if (session == null) {
+            player.sendMessage(Protocol.INFO + Protocol.SEPARATOR + "Aguardando o oponente voltar...");
+            return;
+        }
+        resumable.remove(pending.checkpoint.tokens[0]);
+        resumable.remove(pending.checkpoint.tokens[1]);
+        resumedSessions.add(session);
+        new Thread(session).start();
+    }
+
+    // Prazo esgotado: quem voltou vence como se o oponente tivesse desconectado
+    private void expire(PendingResume pending) {
+        GameSession session = pending.expire();
+        resumable.remove(pending.checkpoint.tokens[0]);
+        resumable.remove(pending.checkpoint.tokens[1]);
+        if (session != null) {
+            session.run();
+            session.handleDisconnect(pending.absentPlayer());
+        }
+    }
+
+    // Partida interrompida à espera dos jogadores; o monitor protege os assentos e o início
+    private final class PendingResume {
+        final SessionCheckpoint checkpoint;
+        private final ClientHandler[] players = new ClientHandler[2];
+        private boolean started;
+        private GameSession session;
+        private int absentSeat = -1;
+
+        PendingResume(SessionCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * @return Se o jogador ocupou o assento; falha se a partida já recomeçou ou foi encerrada pelo prazo
+         */
+        synchronized boolean join(String token, ClientHandler player) {
+            if (started) {
+                return false;
+            }
+            int seat = token.equals(checkpoint.tokens[0]) ? 0 : 1;
+            players[seat] = player;
+            String name = checkpoint.names[seat];
+            if (name != null && player.getPlayerName() == null && online.putIfAbsent(name, player) == null) {
+                player.setPlayerName(name);
+            }
+            return true;
+        }
+
+        /**
+         * @return A sessão retomada, criada uma única vez, quando os dois assentos estão ocupados; senão null
+         */
+        synchronized GameSession startIfReady() {
+            if (started || players[0] == null || players[1] == null) {
+                return null;
+            }
+            started = true;
+            session = new GameSession(players[0], players[1], checkpoint, stats);
+            return session;
+        }
+
+        /**
+         * Tira o jogador do assento enquanto a partida não recomeçou, para ela não começar com uma conexão fechada;
+         * se ninguém voltar a ocupá-lo, o prazo encerra a partida normalmente.
+         * @return A partida, se ela já recomeçou com este jogador
+         */
+        synchronized GameSession leave(ClientHandler player) {
+            if (!started) {
+                for (int seat = 0; seat < 2; seat++) {
+                    if (players[seat] == player) {
+                        players[seat] = null;
+                    }
+                }
+                return null;
+            }
+            return players[0] == player || players[1] == player ? session : null;
+        }
+
+        /**
+         * @return Uma sessão com um jogador local no lugar de quem não voltou, com o mesmo nome para que a derrota
+         * conte no ranking, ou null se ninguém voltou ou a partida já foi retomada
+         */
+        synchronized GameSession expire() {
+            if (started || (players[0] == null && players[1] == null)) {
+                started = true;
+                return null;
+            }
+            started = true;
+            absentSeat = players[0] == null ? 0 : 1;
+            ClientHandler absent = new LocalClientHandler();
+            if (checkpoint.names[absentSeat] != null) {
+                absent.setPlayerName(checkpoint.names[absentSeat]);
+            }
+            players[absentSeat] = absent;
+            session = new GameSession(players[0], players[1], checkpoint, stats);
+            return session;
+        }
+
+        synchronized ClientHandler absentPlayer() {
+            return players[absentSeat];
+        }
+    }
+
+    // LOGIN:nome -> PLAYER_STATS:nome,rating,partidas,vitórias,derrotas,médiaDeJogadas,taxaDeInválidas
+    private void login(String name, ClientHandler player) {
+        if (!name.matches(PLAYER_NAME_PATTERN)) {
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Nome inválido: use até 20 letras, dígitos, _ ou -.");
+            return;
+        }
+        if (player.getPlayerName() != null) {
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Você já se identificou.");
+            return;
+        }
+        if (online.putIfAbsent(name, player) != null) {
+            player.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Nome já em uso.");
+            return;
+        }
+        player.setPlayerName(name);
+        player.sendMessage(Protocol.PLAYER_STATS + Protocol.SEPARATOR + stats.get(name).format());
+    }
+
+    // LEADERBOARD_REQUEST[:quantidade] -> LEADERBOARD:jogador;jogador;... no formato de PLAYER_STATS
+    private void sendLeaderboard(String data, ClientHandler player) {
+        int count = DEFAULT_LEADERBOARD_SIZE;
+        if (!data.isEmpty()) {
+            try {
+                count = Integer.parseInt(data.trim());
+            } catch (NumberFormatException e) {
+                count = DEFAULT_LEADERBOARD_SIZE;
+            }
+        }
+        StringJoiner joiner = new StringJoiner(";");
+        for (PlayerStats entry : stats.top(Math.max(1, Math.min(count, MAX_LEADERBOARD_SIZE)))) {
+            joiner.add(entry.format());
+        }
+        player.sendMessage(Protocol.LEADERBOARD + Protocol.SEPARATOR + joiner);
+    }
+
+    // LIST_ROOMS[:página] -> ROOM_LIST:página:totalDePáginas:id,nome,jogadores,assentos,estado;...
+    private void sendListing(String data, ClientHandler player) {
+        int page = 0;
+        if (!data.isEmpty()) {
+            try {
+                page = Integer.parseInt(data.trim());
+            } catch (NumberFormatException e) {
+                page = 0;
+            }
+        }
+        Listing current = currentListing();
+        page = Math.max(0, Math.min(page, current.pages.length - 1));
+        player.sendMessage(Protocol.ROOM_LIST + Protocol.SEPARATOR + page + Protocol.SEPARATOR
+                + current.pages.length + Protocol.SEPARATOR + current.pages[page]);
+    }
+
+    /**
+     * Retorna o snapshot da listagem, reconstruindo-o se estiver velho. Apenas uma thread reconstrói por vez;
+     * as demais continuam servindo o snapshot anterior.
+     */
+    Listing currentListing() {
+        Listing current = listing;
+        long ageMillis = (System.nanoTime() - current.builtAt) / 1_000_000;
+        if (ageMillis >= LISTING_REFRESH_MILLIS && rebuilding.compareAndSet(false, true)) {
+            try {
+                current = rebuildListing();
+                listing = current;
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+        return current;
+    }
+
+    // Remove salas vazias e salas cujas partidas terminaram, liberando a sessão e os jogadores delas
+    private void sweepRooms() {
+        for (Room room : rooms.values()) {
+            Room.State state = room.getState();
+            if (state == Room.State.FINISHED || (state == Room.State.OPEN && room.getPlayerCount() == 0)) {
+                rooms.remove(room.getId(), room);
+            }
+        }
+    }
+
+    // Monta as páginas depois de uma varredura, para a listagem não mostrar salas encerradas
+    private Listing rebuildListing() {
+        sweepRooms();
+        List<Room> visible = new ArrayList<>(rooms.values());
+        visible.sort(Comparator.comparingInt(Room::getId));
+
+        int pageCount = Math.max(1, (visible.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        String[] pages = new String[pageCount];
+        for (int p = 0; p < pageCount; p++) {
+            StringJoiner joiner = new StringJoiner(";");
+            for (int i = p * PAGE_SIZE; i < Math.min(visible.size(), (p + 1) * PAGE_SIZE); i++) {
+                Room room = visible.get(i);
+                joiner.add(room.getId() + "," + room.getName() + "," + room.getPlayerCount() + ","
+                        + room.getSeats() + "," + room.getState());
+            }
+            pages[p] = joiner.toString();
+        }
+        return new Listing(pages, visible.size(), System.nanoTime());
+    }
+
+    /**
+     * @return Quantidade de salas registradas, incluindo as em jogo
+     */
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    // Os separadores do protocolo não podem aparecer no nome
+    private static String sanitizeName(String name) {
+        String cleaned = name.replaceAll("[:;,]", " ").trim();
+        if (cleaned.isEmpty()) {
+            cleaned = "Sala";
+        }
+        return cleaned.length() > MAX_NAME_LENGTH ? cleaned.substring(0, MAX_NAME_LENGTH) : cleaned;
+    }
+
+    // Snapshot imutável da listagem com as páginas já formatadas
+    static final class Listing {
+        final String[] pages;
+        final int roomCount;
+        final long builtAt;
+
+        Listing(String[] pages, int roomCount, long builtAt) {
+            this.pages = pages;
+            this.roomCount = roomCount;
+            this.builtAt = builtAt;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package server;
+
+import java.util.ArrayDeque;
+
+/**
+ * Jogador em memória, sem socket nem thread: as mensagens da sessão ficam em uma fila lida por quem conduz a
+ * partida (bots, torneios, simulações). Permite rodar milhares de {@link GameSession} no mesmo processo.
+ * Não é thread-safe; a sessão e o leitor devem rodar na mesma thread.
+ */
+public class LocalClientHandler extends ClientHandler {
+    private final ArrayDeque<String> inbox = new ArrayDeque<>();
+    private boolean closed = false;
+
+    @Override
+    public void start() {
+        // Não há conexão para ler
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        if (!closed) {
+            inbox.add(message);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        closed = true;
+    }
+
+    /**
+     * @return A próxima mensagem recebida da sessão, ou null se não houver
+     */
+    public String poll() {
+        return inbox.poll();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
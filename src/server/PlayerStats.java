@@ -0,0 +1,97 @@
+package server;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Estatísticas acumuladas de um jogador identificado. Imutável: cada partida gera um novo valor, o que permite
+ * guardá-lo diretamente no ranking ordenado do {@link StatsStore}.
+ */
+public final class PlayerStats {
+    public static final double INITIAL_RATING = 1500;
+    /** Ordem do ranking: maior rating primeiro; o nome desempata e mantém a ordem total. */
+    public static final Comparator<PlayerStats> BY_RATING =
+            Comparator.comparingDouble(PlayerStats::getRating).reversed().thenComparing(PlayerStats::getName);
+
+    private final String name;
+    private final double rating;
+    private final int games;
+    private final int wins;
+    private final int losses;
+    private final long moves;
+    private final long invalidMoves;
+
+    private PlayerStats(String name, double rating, int games, int wins, int losses, long moves, long invalidMoves) {
+        this.name = name;
+        this.rating = rating;
+        this.games = games;
+        this.wins = wins;
+        this.losses = losses;
+        this.moves = moves;
+        this.invalidMoves = invalidMoves;
+    }
+
+    static PlayerStats newPlayer(String name) {
+        return new PlayerStats(name, INITIAL_RATING, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return As estatísticas depois de mais uma partida
+     */
+    PlayerStats withGame(double newRating, boolean won, int gameMoves, int gameInvalidMoves) {
+        return new PlayerStats(name, newRating, games + 1, wins + (won ? 1 : 0), losses + (won ? 0 : 1),
+                moves + gameMoves, invalidMoves + gameInvalidMoves);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public double getAverageMoves() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    /**
+     * @return Fração das tentativas de jogada recusadas pelo servidor
+     */
+    public double getInvalidRate() {
+        long attempts = moves + invalidMoves;
+        return attempts == 0 ? 0 : (double) invalidMoves / attempts;
+    }
+
+    /**
+     * Formato do protocolo: {@code nome,rating,partidas,vitórias,derrotas,médiaDeJogadas,taxaDeInválidas}.
+     */
+    public String format() {
+        return String.format(Locale.ROOT, "%s,%.0f,%d,%d,%d,%.1f,%.3f", name, rating, games, wins, losses,
+                getAverageMoves(), getInvalidRate());
+    }
+
+    // Linha do arquivo do StatsStore; os nomes não têm espaços
+    String toRecord() {
+        return name + " " + rating + " " + games + " " + wins + " " + losses + " " + moves + " " + invalidMoves;
+    }
+
+    static PlayerStats fromRecord(String line) {
+        String[] fields = line.trim().split(" ");
+        return new PlayerStats(fields[0], Double.parseDouble(fields[1]), Integer.parseInt(fields[2]),
+                Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), Long.parseLong(fields[5]),
+                Long.parseLong(fields[6]));
+    }
+}
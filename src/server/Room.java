@@ -0,0 +1,114 @@
+package server;
+
+import shared.Protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sala do lobby: reúne jogadores até completar os assentos e então inicia a partida. Os campos lidos pela
+ * listagem são voláteis, para o lobby montar a lista sem tomar o monitor da sala nem o da sessão.
+ */
+public class Room {
+    public enum State { OPEN, PLAYING, FINISHED }
+
+    private final int id;
+    private final String name;
+    private final int seats;
+    private final boolean starVariant;
+    private final StatsStore stats;
+    private final List<ClientHandler> members = new ArrayList<>();
+
+    private volatile int playerCount;
+    private volatile State state = State.OPEN;
+    private volatile Session session;
+
+    Room(int id, String name, int seats, boolean starVariant, StatsStore stats) {
+        this.id = id;
+        this.name = name;
+        this.seats = seats;
+        this.starVariant = starVariant;
+        this.stats = stats;
+    }
+
+    /**
+     * Coloca o jogador na sala e inicia a partida quando ela fica cheia.
+     * @return Se o jogador entrou; falha se a sala já estiver cheia ou em jogo
+     */
+    synchronized boolean join(ClientHandler player) {
+        if (state != State.OPEN || members.size() >= seats || members.contains(player)) {
+            return false;
+        }
+        members.add(player);
+        playerCount = members.size();
+        // Enviado antes de iniciar a partida, para chegar antes do WELCOME
+        player.sendMessage(Protocol.ROOM_JOINED + Protocol.SEPARATOR + id);
+        if (members.size() == seats) {
+            start();
+        }
+        return true;
+    }
+
+    /**
+     * Retira um jogador que ainda aguarda o início da partida.
+     */
+    synchronized void leave(ClientHandler player) {
+        if (state == State.OPEN && members.remove(player)) {
+            playerCount = members.size();
+        }
+    }
+
+    private void start() {
+        state = State.PLAYING;
+        Runnable game;
+        if (starVariant) {
+            StarGameSession starSession = new StarGameSession(members.toArray(new ClientHandler[0]));
+            session = starSession;
+            game = starSession;
+        } else {
+            GameSession gameSession = new GameSession(members.get(0), members.get(1), System::nanoTime, stats);
+            session = gameSession;
+            game = gameSession;
+        }
+        System.out.println("Sala " + id + " completa, iniciando partida.");
+        new Thread(game).start();
+    }
+
+    synchronized List<ClientHandler> getMembers() {
+        return new ArrayList<>(members);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Estado atual; uma sala em jogo passa a encerrada quando a partida termina.
+     */
+    public State getState() {
+        Session current = session;
+        if (state == State.PLAYING && current != null && current.isFinished()) {
+            state = State.FINISHED;
+        }
+        return state;
+    }
+
+    /**
+     * @return A partida da sala, ou null se ela ainda não começou
+     */
+    public Session getSession() {
+        return session;
+    }
+}
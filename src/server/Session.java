@@ -0,0 +1,15 @@
+package server;
+
+/**
+ * Partida em andamento que recebe as mensagens dos jogadores conectados a ela.
+ */
+public interface Session {
+    void processMessage(String message, ClientHandler sender);
+
+    void handleDisconnect(ClientHandler disconnectedPlayer);
+
+    /**
+     * @return Se a partida já terminou; usado pelo lobby para retirar a sala do registro
+     */
+    boolean isFinished();
+}
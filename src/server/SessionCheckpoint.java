@@ -0,0 +1,133 @@
+package server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Estado de uma {@link GameSession} interrompida pela drenagem do servidor, para outro processo retomar a partida:
+ * posição, jogador da vez, sequência de pulos em andamento, contadores das estatísticas, nomes dos jogadores e o
+ * token de retomada de cada um. O histórico da conversa não é preservado.
+ * <p>
+ * O arquivo tem uma partida por linha; quem drena acrescenta linhas e quem retoma consome o arquivo inteiro.
+ */
+public final class SessionCheckpoint {
+    private static final SecureRandom TOKENS = new SecureRandom();
+    private static final int TOKEN_BYTES = 16;
+    private static final String NO_NAME = "-";
+
+    final String[] tokens;
+    final long player1Bits;
+    final long player2Bits;
+    final int currentPlayer;
+    final int chainSquare;
+    final int[] moveCounts;
+    final int[] invalidAttempts;
+    final String[] names;
+
+    SessionCheckpoint(String[] tokens, long player1Bits, long player2Bits, int currentPlayer, int chainSquare,
+                      int[] moveCounts, int[] invalidAttempts, String[] names) {
+        this.tokens = tokens;
+        this.player1Bits = player1Bits;
+        this.player2Bits = player2Bits;
+        this.currentPlayer = currentPlayer;
+        this.chainSquare = chainSquare;
+        this.moveCounts = moveCounts;
+        this.invalidAttempts = invalidAttempts;
+        this.names = names;
+    }
+
+    /**
+     * @return Um token de retomada aleatório, impossível de adivinhar
+     */
+    static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        TOKENS.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    String toLine() {
+        return tokens[0] + " " + tokens[1] + " " + player1Bits + " " + player2Bits + " " + currentPlayer + " "
+                + chainSquare + " " + moveCounts[0] + " " + invalidAttempts[0] + " " + moveCounts[1] + " "
+                + invalidAttempts[1] + " " + (names[0] != null ? names[0] : NO_NAME) + " "
+                + (names[1] != null ? names[1] : NO_NAME);
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a linha estiver incompleta ou malformada
+     */
+    static SessionCheckpoint parse(String line) {
+        String[] f = line.trim().split(" ");
+        if (f.length != 12) {
+            throw new IllegalArgumentException("esperados 12 campos, encontrados " + f.length);
+        }
+        try {
+            return new SessionCheckpoint(new String[]{f[0], f[1]}, Long.parseLong(f[2]), Long.parseLong(f[3]),
+                    Integer.parseInt(f[4]), Integer.parseInt(f[5]),
+                    new int[]{Integer.parseInt(f[6]), Integer.parseInt(f[8])},
+                    new int[]{Integer.parseInt(f[7]), Integer.parseInt(f[9])},
+                    new String[]{NO_NAME.equals(f[10]) ? null : f[10], NO_NAME.equals(f[11]) ? null : f[11]});
+        } catch (NumberFormatException e) {
+            // Sem o valor lido na mensagem: numa linha embaralhada ele pode ser um token
+            throw new IllegalArgumentException("campo numérico inválido");
+        }
+    }
+
+    /**
+     * Acrescenta as partidas ao arquivo e força a gravação em disco antes de os jogadores receberem os tokens.
+     */
+    static void append(Path file, List<SessionCheckpoint> checkpoints) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                StandardOpenOption.SYNC)) {
+            for (SessionCheckpoint checkpoint : checkpoints) {
+                out.write(checkpoint.toLine());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Lê e remove o arquivo, para cada partida ser retomada por um único processo. Linhas malformadas, como uma
+     * linha cortada por uma queda durante a gravação, são ignoradas.
+     * @return As partidas gravadas, ou uma lista vazia se não houver arquivo
+     */
+    static List<SessionCheckpoint> consume(Path file) throws IOException {
+        Path claimed = file.resolveSibling(file.getFileName() + ".claimed");
+        List<SessionCheckpoint> checkpoints = new ArrayList<>();
+        // Sobra de uma importação interrompida; a troca abaixo a sobrescreveria
+        if (Files.exists(claimed)) {
+            readClaimed(claimed, checkpoints);
+        }
+        try {
+            Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return checkpoints;
+        }
+        readClaimed(claimed, checkpoints);
+        return checkpoints;
+    }
+
+    private static void readClaimed(Path claimed, List<SessionCheckpoint> checkpoints) throws IOException {
+        List<String> lines = Files.readAllLines(claimed);
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            try {
+                checkpoints.add(parse(lines.get(i)));
+            } catch (RuntimeException e) {
+                // Só o número da linha: ela contém os tokens, que dariam a partida a quem lesse o log
+                System.err.println("Partida interrompida ignorada na linha " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        Files.delete(claimed);
+    }
+}
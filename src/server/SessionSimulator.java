@@ -0,0 +1,547 @@
+package server;
+
+import game.Board;
+import shared.Protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulação determinística de partidas para encontrar condições de corrida na {@link GameSession}. Cada execução
+ * roda em uma única thread com um escalonador virtual: as mensagens entre jogadores e sessão passam por uma rede
+ * simulada com latência, reordenação, perdas e quedas de conexão sorteadas a partir de uma semente, e o relógio
+ * da sessão também é virtual. Como a sessão serializa as chamadas no seu monitor, cada ordem de eventos
+ * corresponde a uma intercalação possível das threads dos {@link ClientHandler}.
+ * <p>
+ * Ao fim de cada execução são verificados os invariantes: nenhuma exceção, a partida termina, cada jogador recebe
+ * no máximo um resultado e exatamente uma estatística, não há dois vencedores e nenhuma mensagem é enviada depois
+ * que a sessão fecha a conexão. Uma execução com falha é reproduzida com {@code --replay semente}, que imprime
+ * todos os eventos.
+ * <p>
+ * Uso: {@code SessionSimulator [--runs N] [--threads N] [--seed N] [--drop P] [--reorder P] [--disconnect P]
+ * [--max-actions N] [--replay semente]}
+ */
+public class SessionSimulator {
+    private static final int MAX_REPORTED_FAILURES = 10;
+    private static final int MAX_EVENTS = 100_000;
+    // Tempos em nanossegundos virtuais
+    private static final long MAX_LATENCY = 50_000_000L;
+    private static final long MAX_THINK_TIME = 200_000_000L;
+    private static final String[] MALFORMED = {
+            Protocol.MOVE, Protocol.MOVE + Protocol.SEPARATOR + "x", Protocol.LEGAL_TARGETS,
+            Protocol.CHAT_HISTORY_REQUEST + Protocol.SEPARATOR + "x", Protocol.END_CHAIN_JUMP, "???"
+    };
+
+    private final double dropRate;
+    private final double reorderRate;
+    private final double disconnectRate;
+    private final int maxActions;
+
+    /**
+     * @param dropRate Probabilidade de uma mensagem se perder
+     * @param reorderRate Probabilidade de uma mensagem ultrapassar as anteriores da mesma conexão
+     * @param disconnectRate Probabilidade de um jogador derrubar a conexão em vez de agir
+     * @param maxActions Ações de cada jogador antes de desistir, para limitar o tamanho das partidas
+     */
+    public SessionSimulator(double dropRate, double reorderRate, double disconnectRate, int maxActions) {
+        this.dropRate = dropRate;
+        this.reorderRate = reorderRate;
+        this.disconnectRate = disconnectRate;
+        this.maxActions = maxActions;
+    }
+
+    /**
+     * Executa uma partida simulada.
+     * @param trace Destino do registro de eventos, ou null
+     * @return A primeira violação encontrada, ou null se a execução passou
+     */
+    public String simulate(long runSeed, StringBuilder trace) {
+        return new Run(runSeed, trace).execute();
+    }
+
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long order;
+        final String what;
+        final String message;
+        final Runnable action;
+
+        Event(long time, long order, String what, String message, Runnable action) {
+            this.time = time;
+            this.order = order;
+            this.what = what;
+            this.message = message;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+
+    // Uma execução: escalonador, rede e os dois jogadores
+    private final class Run {
+        private final SplittableRandom random;
+        private final StringBuilder trace;
+        private final PriorityQueue<Event> events = new PriorityQueue<>();
+        private final SimulatedPlayer[] players = {new SimulatedPlayer(1), new SimulatedPlayer(2)};
+        private final GameSession session;
+        private long now;
+        private long order;
+        private int eventCount;
+        private String failure;
+
+        Run(long runSeed, StringBuilder trace) {
+            this.random = new SplittableRandom(runSeed);
+            this.trace = trace;
+            this.session = new GameSession(players[0].handler, players[1].handler, () -> now);
+        }
+
+        String execute() {
+            schedule(0, "sessão", "início", session::run);
+            while (failure == null) {
+                Event event = events.poll();
+                if (event == null) {
+                    // Rede parada, por exemplo após perdas: um jogador desiste de esperar
+                    if (!timeOut()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (++eventCount > MAX_EVENTS) {
+                    fail("eventos demais; a partida não converge");
+                    break;
+                }
+                now = event.time;
+                log(event.what, event.message);
+                try {
+                    event.action.run();
+                } catch (RuntimeException e) {
+                    fail("exceção em '" + event.what + " " + event.message + "': " + e);
+                }
+            }
+            if (failure == null) {
+                checkInvariants();
+            }
+            return failure;
+        }
+
+        int getEventCount() {
+            return eventCount;
+        }
+
+        private void checkInvariants() {
+            if (!session.isFinished()) {
+                fail("a partida não terminou");
+                return;
+            }
+            for (SimulatedPlayer player : players) {
+                if (player.results > 1) {
+                    fail("jogador " + player.seat + " recebeu " + player.results + " resultados");
+                } else if (player.stats != 1) {
+                    fail("jogador " + player.seat + " recebeu " + player.stats + " estatísticas");
+                } else if (!player.shutdown) {
+                    fail("a conexão do jogador " + player.seat + " não foi fechada");
+                }
+            }
+            if (players[0].won && players[1].won) {
+                fail("os dois jogadores venceram");
+            } else if (!Objects.equals(players[0].statsLine, players[1].statsLine)) {
+                fail("estatísticas diferentes: " + players[0].statsLine + " / " + players[1].statsLine);
+            }
+        }
+
+        private boolean timeOut() {
+            List<SimulatedPlayer> connected = new ArrayList<>(2);
+            for (SimulatedPlayer player : players) {
+                if (player.clientOpen) {
+                    connected.add(player);
+                }
+            }
+            if (connected.isEmpty()) {
+                return false;
+            }
+            connected.get(random.nextInt(connected.size())).disconnect();
+            return true;
+        }
+
+        private void schedule(long time, String what, String message, Runnable action) {
+            events.add(new Event(time, order++, what, message, action));
+        }
+
+        private void fail(String reason) {
+            if (failure == null) {
+                failure = reason;
+                log("FALHA", reason);
+            }
+        }
+
+        private void log(String what, String message) {
+            if (trace != null) {
+                trace.append(String.format(Locale.ROOT, "%10.3f ms  ", now / 1e6)).append(what).append(' ')
+                        .append(message).append('\n');
+            }
+        }
+
+        // Um sentido de uma conexão: entrega em ordem, exceto quando a reordenação é sorteada
+        private final class Channel {
+            private long tail;
+
+            long nextDelivery() {
+                long time = now + 1 + random.nextLong(MAX_LATENCY);
+                if (random.nextDouble() < reorderRate) {
+                    return time;
+                }
+                tail = Math.max(tail, time);
+                return tail;
+            }
+        }
+
+        private final class SimulatedPlayer {
+            final int seat;
+            final Handler handler = new Handler();
+            private final Channel toServer = new Channel();
+            private final Channel toClient = new Channel();
+            private final String toServerLabel;
+            private final String toClientLabel;
+            private final String playerLabel;
+
+            // Lado do cliente
+            private final Board mirror = new Board();
+            private boolean clientOpen = true;
+            private boolean thinking;
+            private boolean myTurn;
+            private int chainSquare = -1;
+            private int actions;
+            private int sequence = 1;
+
+            // Lado do servidor: a thread leitora do ClientHandler e o que a sessão enviou
+            private boolean serverOpen = true;
+            boolean shutdown;
+            int results;
+            int stats;
+            boolean won;
+            String statsLine;
+
+            SimulatedPlayer(int seat) {
+                this.seat = seat;
+                this.toServerLabel = "p" + seat + " -> servidor";
+                this.toClientLabel = "servidor -> p" + seat;
+                this.playerLabel = "p" + seat;
+            }
+
+            // Chamado pela sessão, sob o seu monitor
+            private void fromServer(String message) {
+                if (shutdown) {
+                    fail("mensagem para o jogador " + seat + " depois do fechamento: " + message);
+                    return;
+                }
+                String command = message.split(Protocol.SEPARATOR, 2)[0];
+                switch (command) {
+                    case Protocol.GAME_OVER_STATS:
+                        stats++;
+                        statsLine = message;
+                        break;
+                    case Protocol.VICTORY:
+                    case Protocol.OPPONENT_FORFEIT:
+                        won = true;
+                        results++;
+                        break;
+                    case Protocol.DEFEAT:
+                        results++;
+                        break;
+                }
+                if (random.nextDouble() < dropRate) {
+                    log(toClientLabel + " (perdida)", message);
+                    return;
+                }
+                schedule(toClient.nextDelivery(), toClientLabel, message, () -> receive(message));
+            }
+
+            // A sessão fecha o socket: a thread leitora termina e o cliente vê o fim da conexão depois da latência
+            private void serverShutdown() {
+                shutdown = true;
+                schedule(now, playerLabel, "leitor do servidor encerrado", this::serverReaderClosed);
+                schedule(toClient.nextDelivery(), toClientLabel, "fim da conexão", () -> clientOpen = false);
+            }
+
+            private void serverReaderClosed() {
+                if (serverOpen) {
+                    serverOpen = false;
+                    handler.closed();
+                }
+            }
+
+            private void disconnect() {
+                if (!clientOpen) {
+                    return;
+                }
+                clientOpen = false;
+                log(playerLabel, "desconecta");
+                schedule(toServer.nextDelivery(), toServerLabel, "fim da conexão", this::serverReaderClosed);
+            }
+
+            private void send(String message) {
+                if (random.nextDouble() < dropRate) {
+                    log(toServerLabel + " (perdida)", message);
+                    return;
+                }
+                schedule(toServer.nextDelivery(), toServerLabel, message, () -> {
+                    if (serverOpen) {
+                        session.processMessage(message, handler);
+                    }
+                });
+            }
+
+            private void receive(String message) {
+                if (!clientOpen) {
+                    return;
+                }
+                String[] parts = message.split(Protocol.SEPARATOR, 2);
+                String data = parts.length > 1 ? parts[1] : "";
+                switch (parts[0]) {
+                    case Protocol.SET_TURN:
+                        myTurn = "YOUR_TURN".equals(data);
+                        chainSquare = -1;
+                        if (myTurn) {
+                            think();
+                        }
+                        break;
+                    case Protocol.VALID_MOVE:
+                    case Protocol.JUMP_MOVE:
+                    case Protocol.OPPONENT_MOVED:
+                        String[] coords = data.split(Protocol.SEPARATOR);
+                        mirror.performMove(Integer.parseInt(coords[0]), Integer.parseInt(coords[1]),
+                                Integer.parseInt(coords[2]), Integer.parseInt(coords[3]));
+                        break;
+                    case Protocol.CHAIN_JUMP_OFFER:
+                        String[] square = data.split(Protocol.SEPARATOR);
+                        chainSquare = Board.squareOf(Integer.parseInt(square[0]), Integer.parseInt(square[1]));
+                        think();
+                        break;
+                    case Protocol.MOVE_REJECTED:
+                    case Protocol.ERROR:
+                        if (myTurn) {
+                            think();
+                        }
+                        break;
+                    default:
+                        // De vez em quando age fora de hora, para exercitar as recusas da sessão
+                        if (random.nextInt(16) == 0) {
+                            think();
+                        }
+                        break;
+                }
+            }
+
+            private void think() {
+                if (!clientOpen || thinking) {
+                    return;
+                }
+                thinking = true;
+                schedule(now + 1 + random.nextLong(MAX_THINK_TIME), playerLabel, "age", this::act);
+            }
+
+            private void act() {
+                thinking = false;
+                if (!clientOpen) {
+                    return;
+                }
+                if (random.nextDouble() < disconnectRate) {
+                    disconnect();
+                    return;
+                }
+                if (actions++ >= maxActions) {
+                    send(Protocol.FORFEIT);
+                    return;
+                }
+                switch (random.nextInt(16)) {
+                    case 0:
+                        send(Protocol.CHAT + Protocol.SEPARATOR + "mensagem " + actions);
+                        break;
+                    case 1:
+                        send(Protocol.LEGAL_TARGETS + Protocol.SEPARATOR + random.nextInt(Board.SIZE)
+                                + Protocol.SEPARATOR + random.nextInt(Board.SIZE));
+                        break;
+                    case 2:
+                        send(MALFORMED[random.nextInt(MALFORMED.length)]);
+                        break;
+                    case 3:
+                        send(Protocol.CHAT_HISTORY_REQUEST + Protocol.SEPARATOR + random.nextInt(8));
+                        break;
+                    case 4:
+                        sendMove(random.nextInt(Board.SQUARES), random.nextInt(Board.SQUARES));
+                        return;
+                    default:
+                        playLegal();
+                        return;
+                }
+                // Ações que não passam o turno: o jogador continua devendo uma jogada
+                if (myTurn) {
+                    think();
+                }
+            }
+
+            // Jogada legal segundo o tabuleiro espelho, que pode estar defasado quando há reordenação
+            private void playLegal() {
+                if (chainSquare >= 0) {
+                    long targets = mirror.getDirectTargets(chainSquare, true);
+                    if (targets == 0 || random.nextInt(4) == 0) {
+                        chainSquare = -1;
+                        send(Protocol.END_CHAIN_JUMP);
+                    } else {
+                        sendMove(chainSquare, pick(targets));
+                    }
+                    return;
+                }
+                int from = -1;
+                int candidates = 0;
+                for (long pieces = mirror.getPlayerBits(seat); pieces != 0; pieces &= pieces - 1) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    if (mirror.getDirectTargets(square, false) != 0 && random.nextInt(++candidates) == 0) {
+                        from = square;
+                    }
+                }
+                if (from < 0) {
+                    send(Protocol.FORFEIT);
+                    return;
+                }
+                sendMove(from, pick(mirror.getDirectTargets(from, false)));
+            }
+
+            private int pick(long squares) {
+                for (int skip = random.nextInt(Long.bitCount(squares)); skip > 0; skip--) {
+                    squares &= squares - 1;
+                }
+                return Long.numberOfTrailingZeros(squares);
+            }
+
+            private void sendMove(int from, int to) {
+                send(Protocol.MOVE + Protocol.SEPARATOR + from / Board.SIZE + Protocol.SEPARATOR + from % Board.SIZE
+                        + Protocol.SEPARATOR + to / Board.SIZE + Protocol.SEPARATOR + to % Board.SIZE
+                        + Protocol.SEPARATOR + sequence++);
+            }
+
+            // O ClientHandler visto pela sessão; nenhuma thread nem socket
+            private final class Handler extends ClientHandler {
+                @Override
+                public void start() {
+                    // A thread leitora é simulada pelos eventos
+                }
+
+                @Override
+                public void sendMessage(String message) {
+                    fromServer(message);
+                }
+
+                @Override
+                public void shutdown() {
+                    if (!shutdown) {
+                        serverShutdown();
+                    }
+                }
+
+                void closed() {
+                    connectionClosed();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        long runs = 100_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        double dropRate = 0.01;
+        double reorderRate = 0.02;
+        double disconnectRate = 0.01;
+        int maxActions = 40;
+        Long replay = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs": runs = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--drop": dropRate = Double.parseDouble(args[++i]); break;
+                case "--reorder": reorderRate = Double.parseDouble(args[++i]); break;
+                case "--disconnect": disconnectRate = Double.parseDouble(args[++i]); break;
+                case "--max-actions": maxActions = Integer.parseInt(args[++i]); break;
+                case "--replay": replay = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    return;
+            }
+        }
+
+        SessionSimulator simulator = new SessionSimulator(dropRate, reorderRate, disconnectRate, maxActions);
+        if (replay != null) {
+            StringBuilder trace = new StringBuilder();
+            String failure = simulator.simulate(replay, trace);
+            System.out.print(trace);
+            System.out.println(failure == null ? "Execução sem falhas." : "Falha: " + failure);
+            return;
+        }
+        simulator.explore(runs, threads, seed);
+    }
+
+    /**
+     * Executa as simulações distribuídas em {@code threads} e imprime o resumo com as sementes das falhas.
+     */
+    public void explore(long runs, int threads, long seed) throws Exception {
+        LongAdder events = new LongAdder();
+        LongAdder failures = new LongAdder();
+        List<String> reported = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int worker = 0; worker < threads; worker++) {
+                int first = worker;
+                int stride = threads;
+                futures.add(executor.submit(() -> {
+                    for (long run = first; run < runs; run += stride) {
+                        // Semente por execução: cada falha é reproduzível isoladamente com --replay
+                        long runSeed = new SplittableRandom(seed + run).nextLong();
+                        Run simulation = new Run(runSeed, null);
+                        String failure = simulation.execute();
+                        events.add(simulation.getEventCount());
+                        if (failure != null) {
+                            failures.increment();
+                            if (reported.size() < MAX_REPORTED_FAILURES) {
+                                reported.add("semente " + runSeed + ": " + failure);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "%d execuções em %.2f s (%.0f execuções/s, %d threads), %.1f eventos por execução, %d falhas",
+                runs, seconds, runs / seconds, threads, events.sum() / (double) runs, failures.sum()));
+        for (String failure : reported) {
+            System.out.println("  " + failure);
+        }
+        if (failures.sum() > 0) {
+            System.out.println("Reproduza uma falha com --replay <semente>.");
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package server;
+
+import game.StarBoard;
+import shared.Protocol;
+
+import java.util.StringJoiner;
+
+/**
+ * Partida da variante estrela (Damas Chinesas) para 2 a 6 jogadores. As jogadas usam índices de casa
+ * ({@link Protocol#MOVE_CELL}) em vez de linha e coluna, e os turnos seguem a ordem dos assentos.
+ */
+public class StarGameSession implements Runnable, Session {
+    private final ClientHandler[] players;
+    private final StarBoard board;
+    private int currentPlayer;
+
+    private final boolean[] active;
+    private final int[] moveCounts;
+    private final int[] invalidAttempts;
+    private final ChatLog chatLog;
+    private String winnerInfo = "O jogo encerrou inesperadamente.";
+    private volatile boolean gameEnded = false;
+
+    private boolean isChainJumpActive = false;
+    private int chainJumpCell;
+
+    public StarGameSession(ClientHandler[] players) {
+        this.players = players.clone();
+        this.board = new StarBoard(players.length);
+        this.currentPlayer = 1; // Jogador 1 inicia o jogo
+
+        this.active = new boolean[players.length];
+        this.moveCounts = new int[players.length];
+        this.invalidAttempts = new int[players.length];
+        this.chatLog = new ChatLog(players.length);
+
+        // Linka essa sessão de jogo para os jogadores
+        for (int i = 0; i < players.length; i++) {
+            active[i] = true;
+            this.players[i].setGameSession(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        // Notificando jogadores que o jogo esta iniciando
+        for (int i = 0; i < players.length; i++) {
+            players[i].sendMessage(Protocol.WELCOME + Protocol.SEPARATOR + (i + 1));
+            players[i].sendMessage(Protocol.VARIANT + Protocol.SEPARATOR + Protocol.VARIANT_STAR + Protocol.SEPARATOR + players.length);
+            players[i].sendMessage(Protocol.OPPONENT_FOUND);
+            players[i].sendMessage(Protocol.GAME_START);
+        }
+
+        // Inicia turno
+        updateTurn();
+    }
+
+    private void updateTurn() {
+        for (int i = 0; i < players.length; i++) {
+            if (!active[i]) continue;
+            if (i + 1 == currentPlayer) {
+                players[i].sendMessage(Protocol.SET_TURN + Protocol.SEPARATOR + "YOUR_TURN");
+            } else {
+                players[i].sendMessage(Protocol.SET_TURN + Protocol.SEPARATOR + "OPPONENT_TURN" + Protocol.SEPARATOR + currentPlayer);
+            }
+        }
+    }
+
+    // Passa o turno para o próximo assento que ainda está na partida
+    private void switchTurn() {
+        isChainJumpActive = false;
+        do {
+            currentPlayer = currentPlayer % players.length + 1;
+        } while (!active[currentPlayer - 1]);
+        updateTurn();
+    }
+
+    private int seatOf(ClientHandler handler) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == handler) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized void processMessage(String message, ClientHandler sender) {
+        String[] parts = message.split(Protocol.SEPARATOR, 2);
+        String command = parts[0];
+        int senderId = seatOf(sender);
+        if (senderId < 0 || !active[senderId - 1] || gameEnded) {
+            return;
+        }
+
+        switch (command) {
+            case Protocol.MOVE_CELL:
+                if (senderId == currentPlayer) {
+                    handleMove(parts.length > 1 ? parts[1] : "", sender, senderId);
+                } else {
+                    sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Não é o seu turno.");
+                    invalidAttempts[senderId - 1]++;
+                }
+                break;
+            case Protocol.MOVE:
+                sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Use " + Protocol.MOVE_CELL + " na variante estrela.");
+                invalidAttempts[senderId - 1]++;
+                break;
+            case Protocol.CHAT:
+                if (parts.length > 1) {
+                    broadcastChat(parts[1], sender, senderId);
+                }
+                break;
+            case Protocol.CHAT_HISTORY_REQUEST:
+                chatLog.handleHistoryRequest(sender, parts.length > 1 ? parts[1] : "0");
+                break;
+            case Protocol.FORFEIT:
+                sender.sendMessage(Protocol.DEFEAT + Protocol.SEPARATOR + "Você desistiu da partida.");
+                removePlayer(senderId, "Jogador " + senderId + " desistiu da partida.", "ganhou pela desistência dos oponentes.");
+                break;
+            case Protocol.END_CHAIN_JUMP:
+                if (isChainJumpActive && senderId == currentPlayer) {
+                    isChainJumpActive = false;
+                    if (board.checkForWinner(currentPlayer)) {
+                        winnerInfo = "Jogador " + currentPlayer + " ganhou por chegar no destino!";
+                        endGame(currentPlayer);
+                    } else {
+                        switchTurn();
+                    }
+                }
+                break;
+        }
+    }
+
+    private void handleMove(String moveData, ClientHandler sender, int senderId) {
+        try {
+            String[] cells = moveData.split(Protocol.SEPARATOR);
+            int from = Integer.parseInt(cells[0]);
+            int to = Integer.parseInt(cells[1]);
+
+            if (isChainJumpActive && from != chainJumpCell) {
+                sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Você deve continuar pulando com a mesma peça.");
+                return;
+            }
+
+            boolean wasJump = board.isJump(from, to);
+            if (!board.movePiece(from, to, currentPlayer, isChainJumpActive)) {
+                invalidAttempts[senderId - 1]++;
+                sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Movimento inválido.");
+                return;
+            }
+            moveCounts[senderId - 1]++;
+            String cellData = from + Protocol.SEPARATOR + to;
+
+            if (wasJump && board.canJumpFrom(to)) {
+                isChainJumpActive = true;
+                chainJumpCell = to;
+
+                sender.sendMessage(Protocol.JUMP_MOVE + Protocol.SEPARATOR + cellData);
+                broadcastExcept(sender, Protocol.OPPONENT_MOVED + Protocol.SEPARATOR + cellData);
+
+                // Informa o jogador e aguarda a sua decisão
+                sender.sendMessage(Protocol.CHAIN_JUMP_OFFER + Protocol.SEPARATOR + to);
+            } else {
+                isChainJumpActive = false;
+
+                sender.sendMessage(Protocol.VALID_MOVE + Protocol.SEPARATOR + cellData);
+                broadcastExcept(sender, Protocol.OPPONENT_MOVED + Protocol.SEPARATOR + cellData);
+
+                if (board.checkForWinner(currentPlayer)) {
+                    winnerInfo = "Jogador " + currentPlayer + " ganhou por chegar no destino!";
+                    endGame(currentPlayer);
+                } else {
+                    switchTurn();
+                }
+            }
+        } catch (Exception e) {
+            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Comando de movimento malformado.");
+        }
+    }
+
+    private void broadcastExcept(ClientHandler excluded, String message) {
+        for (int i = 0; i < players.length; i++) {
+            if (active[i] && players[i] != excluded) {
+                players[i].sendMessage(message);
+            }
+        }
+    }
+
+    private void broadcastChat(String chatMessage, ClientHandler sender, int senderId) {
+        String newFormattedMessage = chatLog.post(senderId, chatMessage);
+        if (newFormattedMessage == null) {
+            sender.sendMessage(Protocol.ERROR + Protocol.SEPARATOR + "Mensagens demais. Aguarde um pouco.");
+            return;
+        }
+        broadcastExcept(null, Protocol.CHAT_MESSAGE + Protocol.SEPARATOR + newFormattedMessage);
+    }
+
+    /**
+     * Retira um assento da partida (desistência ou desconexão). As peças dele continuam no tabuleiro como obstáculos.
+     * Quando resta apenas um jogador, ele é declarado vencedor.
+     */
+    private void removePlayer(int seat, String notice, String winReason) {
+        active[seat - 1] = false;
+        players[seat - 1].shutdown();
+
+        int remaining = 0;
+        int lastSeat = -1;
+        for (int i = 0; i < players.length; i++) {
+            if (active[i]) {
+                remaining++;
+                lastSeat = i + 1;
+            }
+        }
+
+        if (remaining == 1) {
+            winnerInfo = "Jogador " + lastSeat + " " + winReason;
+            gameEnded = true;
+            sendGameOverStats();
+            players[lastSeat - 1].sendMessage(Protocol.OPPONENT_FORFEIT);
+            players[lastSeat - 1].shutdown();
+            return;
+        }
+
+        broadcastExcept(null, Protocol.INFO + Protocol.SEPARATOR + notice);
+        if (seat == currentPlayer) {
+            switchTurn();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return gameEnded;
+    }
+
+    @Override
+    public synchronized void handleDisconnect(ClientHandler disconnectedPlayer) {
+        int seat = seatOf(disconnectedPlayer);
+        if (gameEnded || seat < 0 || !active[seat - 1]) return;
+        removePlayer(seat, "Jogador " + seat + " se desconectou.", "ganhou porque os oponentes se desconectaram.");
+    }
+
+    private void endGame(int winnerSeat) {
+        if (gameEnded) return;
+        gameEnded = true;
+
+        sendGameOverStats();
+
+        for (int i = 0; i < players.length; i++) {
+            if (!active[i]) continue;
+            players[i].sendMessage(i + 1 == winnerSeat ? Protocol.VICTORY : Protocol.DEFEAT);
+            players[i].shutdown();
+        }
+    }
+
+    /**
+     * Histórico guardado em linhas CHAT_HISTORY e depois as estatísticas no formato
+     * {@code vencedor:assentos:movimentos:inválidos...:totalDeMensagens}, com um par de contadores por assento.
+     */
+    private void sendGameOverStats() {
+        for (int i = 0; i < players.length; i++) {
+            if (active[i]) {
+                chatLog.sendPage(players[i], 0, ChatLog.CAPACITY);
+            }
+        }
+
+        StringJoiner stats = new StringJoiner(Protocol.SEPARATOR);
+        stats.add(winnerInfo);
+        stats.add(String.valueOf(players.length));
+        for (int i = 0; i < players.length; i++) {
+            stats.add(String.valueOf(moveCounts[i]));
+            stats.add(String.valueOf(invalidAttempts[i]));
+        }
+        stats.add(String.valueOf(chatLog.getTotal()));
+
+        broadcastExcept(null, Protocol.GAME_OVER_STATS + Protocol.SEPARATOR + stats);
+    }
+}
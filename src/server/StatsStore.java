@@ -0,0 +1,205 @@
+package server;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ratings Elo e estatísticas persistentes dos jogadores identificados.
+ * <p>
+ * Tudo é servido da memória: as partidas atualizam o mapa de jogadores e o ranking, um
+ * {@link ConcurrentSkipListSet} ordenado por rating, e marcam o jogador como sujo. Uma thread grava os sujos a
+ * cada {@link #FLUSH_INTERVAL_SECONDS} segundos (write-behind), acrescentando linhas ao fim do arquivo; na leitura
+ * vale a última linha de cada jogador, e o arquivo é compactado quando acumula linhas velhas demais. Atualizar o
+ * ranking custa O(log n); consultar os N primeiros percorre só o início da skip list, sem tocar o disco.
+ * <p>
+ * Uma queda no meio de uma gravação deixa a última linha cortada: ela é descartada na leitura (vale a linha
+ * anterior do jogador) e o arquivo é reescrito inteiro na gravação seguinte, o mesmo que acontece depois de uma
+ * gravação que falhou.
+ */
+public class StatsStore implements Closeable {
+    static final double K_FACTOR = 32;
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    // Compacta quando o arquivo passa do dobro do número de jogadores
+    private static final int COMPACTION_RATIO = 2;
+    private static final int MIN_RECORDS_TO_COMPACT = 1000;
+
+    private final Path file;
+    private final ConcurrentHashMap<String, PlayerStats> players = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<PlayerStats> leaderboard = new ConcurrentSkipListSet<>(PlayerStats.BY_RATING);
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Object updateLock = new Object();
+    private final ScheduledExecutorService flusher;
+    // Linhas no arquivo, usadas só pela gravação (sob o monitor do store)
+    private long recordsInFile;
+    // O arquivo pode terminar em uma linha cortada: a próxima gravação o reescreve em vez de acrescentar
+    private boolean rewriteFile;
+
+    /**
+     * Carrega o arquivo, se existir, e inicia a gravação periódica.
+     */
+    public StatsStore(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            String[] lines = content.split("\n");
+            // Sem a quebra de linha final, a última linha foi cortada no meio da gravação
+            int complete = content.isEmpty() || content.endsWith("\n") ? lines.length : lines.length - 1;
+            rewriteFile = complete < lines.length;
+            for (int i = 0; i < complete; i++) {
+                if (lines[i].isBlank()) {
+                    continue;
+                }
+                try {
+                    PlayerStats stats = PlayerStats.fromRecord(lines[i]);
+                    players.put(stats.getName(), stats);
+                    recordsInFile++;
+                } catch (RuntimeException e) {
+                    System.err.println("Linha de estatísticas inválida ignorada: " + lines[i]);
+                    rewriteFile = true;
+                }
+            }
+        }
+        for (PlayerStats stats : players.values()) {
+            if (stats.getGames() > 0) {
+                leaderboard.add(stats);
+            }
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "halma-stats-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return As estatísticas do jogador, ou de um jogador novo se ele ainda não jogou
+     */
+    public PlayerStats get(String name) {
+        PlayerStats stats = players.get(name);
+        return stats != null ? stats : PlayerStats.newPlayer(name);
+    }
+
+    /**
+     * Registra uma partida entre dois jogadores identificados e atualiza o Elo. Só altera a memória.
+     */
+    public void recordGame(String winner, String loser, int winnerMoves, int winnerInvalid, int loserMoves, int loserInvalid) {
+        synchronized (updateLock) {
+            PlayerStats winnerStats = get(winner);
+            PlayerStats loserStats = get(loser);
+            double expected = 1 / (1 + Math.pow(10, (loserStats.getRating() - winnerStats.getRating()) / 400));
+            double delta = K_FACTOR * (1 - expected);
+            replace(winnerStats, winnerStats.withGame(winnerStats.getRating() + delta, true, winnerMoves, winnerInvalid));
+            replace(loserStats, loserStats.withGame(loserStats.getRating() - delta, false, loserMoves, loserInvalid));
+        }
+    }
+
+    // O valor antigo sai do ranking antes de o novo entrar, pois a posição depende do rating
+    private void replace(PlayerStats old, PlayerStats updated) {
+        leaderboard.remove(old);
+        leaderboard.add(updated);
+        players.put(updated.getName(), updated);
+        dirty.add(updated.getName());
+    }
+
+    /**
+     * @return Os {@code count} primeiros do ranking, do maior rating ao menor
+     */
+    public List<PlayerStats> top(int count) {
+        List<PlayerStats> page = new ArrayList<>(count);
+        Iterator<PlayerStats> iterator = leaderboard.iterator();
+        while (page.size() < count && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Grava os jogadores alterados desde a última gravação. Se a gravação falhar, eles continuam sujos e entram na
+     * próxima.
+     */
+    public synchronized void flush() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (Iterator<String> iterator = dirty.iterator(); iterator.hasNext(); ) {
+            names.add(iterator.next());
+            iterator.remove();
+        }
+        if (names.isEmpty() && !rewriteFile) {
+            return;
+        }
+
+        try {
+            if (rewriteFile) {
+                compact();
+                rewriteFile = false;
+                return;
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String name : names) {
+                    out.write(players.get(name).toRecord());
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            // Parte das linhas pode ter sido gravada, talvez com a última cortada
+            dirty.addAll(names);
+            rewriteFile = true;
+            throw e;
+        }
+        recordsInFile += names.size();
+        if (recordsInFile > Math.max(MIN_RECORDS_TO_COMPACT, COMPACTION_RATIO * (long) players.size())) {
+            compact();
+        }
+    }
+
+    // Reescreve o arquivo com uma linha por jogador e troca atomicamente pelo antigo
+    private void compact() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        List<PlayerStats> snapshot = new ArrayList<>(players.values());
+        try (BufferedWriter out = Files.newBufferedWriter(temporary)) {
+            for (PlayerStats stats : snapshot) {
+                out.write(stats.toRecord());
+                out.newLine();
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordsInFile = snapshot.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar estatísticas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Para a gravação periódica e grava o que falta.
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,174 @@
+package server;
+
+import shared.Tls;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mede o custo do TLS com um certificado local: taxa de handshakes completos e retomados, e o tempo de ida e volta
+ * de uma mensagem típica do protocolo com e sem TLS. O servidor de eco roda na mesma JVM e faz os handshakes em um
+ * pool de threads, como o {@link HalmaServer}.
+ * <p>
+ * Uso: {@code TlsBenchmark keystore.p12 [--handshakes N] [--messages N]}, com a senha na propriedade
+ * {@link Tls#PASSWORD_PROPERTY}; o mesmo arquivo serve de chave do servidor e de certificado confiável do cliente.
+ */
+public class TlsBenchmark {
+    private static final String SAMPLE_MESSAGE = "MOVE:2:1:3:2:17";
+    private static final int WARMUP = 200;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: TlsBenchmark keystore.p12 [--handshakes N] [--messages N]");
+            return;
+        }
+        int handshakes = 2000;
+        int messages = 50_000;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--handshakes": handshakes = Integer.parseInt(args[++i]); break;
+                case "--messages": messages = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    return;
+            }
+        }
+
+        char[] password = System.getProperty(Tls.PASSWORD_PROPERTY, "").toCharArray();
+        SSLContext context = Tls.load(Paths.get(args[0]), password);
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (EchoServer tlsServer = new EchoServer(context.getServerSocketFactory().createServerSocket(0, 50, loopback));
+             EchoServer plainServer = new EchoServer(new ServerSocket(0, 50, loopback))) {
+            // Handshakes
+            measureHandshakes(context, tlsServer.getPort(), WARMUP, false);
+            double full = measureHandshakes(context, tlsServer.getPort(), handshakes, false);
+            double resumed = measureHandshakes(context, tlsServer.getPort(), handshakes, true);
+            System.out.println(String.format(Locale.ROOT, "Handshakes completos: %8.0f/s (%.3f ms cada)", full, 1000 / full));
+            System.out.println(String.format(Locale.ROOT, "Handshakes retomados: %8.0f/s (%.3f ms cada)", resumed, 1000 / resumed));
+
+            // Mensagens
+            try (Socket plain = new Socket(loopback, plainServer.getPort());
+                 SSLSocket secure = connect(context, tlsServer.getPort())) {
+                plain.setTcpNoDelay(true);
+                measureRoundTrips(plain, WARMUP * 10);
+                measureRoundTrips(secure, WARMUP * 10);
+                double plainMicros = measureRoundTrips(plain, messages);
+                double tlsMicros = measureRoundTrips(secure, messages);
+                System.out.println(String.format(Locale.ROOT, "Ida e volta de \"%s\": %.1f us sem TLS, %.1f us com TLS "
+                                + "(%+.1f us por mensagem, %s)", SAMPLE_MESSAGE, plainMicros, tlsMicros,
+                        tlsMicros - plainMicros, secure.getSession().getCipherSuite()));
+            }
+        }
+    }
+
+    /**
+     * Abre conexões em sequência, cada uma com handshake e uma mensagem de ida e volta; a mensagem faz o cliente
+     * receber o ticket de sessão do TLS 1.3, enviado depois do handshake.
+     * @param resume Se as sessões são reaproveitadas; caso contrário cada sessão é invalidada ao fechar
+     * @return Conexões por segundo
+     */
+    private static double measureHandshakes(SSLContext context, int port, int count, boolean resume) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            try (SSLSocket socket = connect(context, port)) {
+                roundTrip(socket, new BufferedReader(new InputStreamReader(socket.getInputStream())),
+                        new PrintWriter(socket.getOutputStream(), true));
+                if (!resume) {
+                    socket.getSession().invalidate();
+                }
+            }
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static SSLSocket connect(SSLContext context, int port) throws IOException {
+        SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", port);
+        socket.setTcpNoDelay(true);
+        Tls.verifyHostname(socket);
+        socket.startHandshake();
+        return socket;
+    }
+
+    /**
+     * @return Tempo médio de ida e volta, em microssegundos
+     */
+    private static double measureRoundTrips(Socket socket, int count) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            roundTrip(socket, in, out);
+        }
+        return (System.nanoTime() - start) / 1e3 / count;
+    }
+
+    private static void roundTrip(Socket socket, BufferedReader in, PrintWriter out) throws IOException {
+        out.println(SAMPLE_MESSAGE);
+        if (!SAMPLE_MESSAGE.equals(in.readLine())) {
+            throw new IOException("Eco inesperado de " + socket.getRemoteSocketAddress());
+        }
+    }
+
+    // Servidor de eco; conexões TLS fazem o handshake na thread do pool, fora do accept
+    private static class EchoServer implements Closeable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService connections = Executors.newCachedThreadPool();
+
+        EchoServer(ServerSocket serverSocket) {
+            this.serverSocket = serverSocket;
+            Thread acceptor = new Thread(this::acceptLoop, "echo-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    connections.execute(() -> echo(socket));
+                }
+            } catch (IOException e) {
+                // Servidor fechado
+            }
+        }
+
+        private void echo(Socket socket) {
+            try (Socket connection = socket) {
+                connection.setTcpNoDelay(true);
+                if (connection instanceof SSLSocket) {
+                    ((SSLSocket) connection).startHandshake();
+                }
+                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+                PrintWriter out = new PrintWriter(connection.getOutputStream(), true);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    out.println(line);
+                }
+            } catch (IOException e) {
+                // Cliente fechou a conexão
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            connections.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package server;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de taxa por balde de fichas: até {@code capacity} ações em rajada, repostas continuamente à razão
+ * de {@code refillPerSecond}. Não é thread-safe; cada dono sincroniza o acesso (a sessão já o faz).
+ * O relógio é injetável, para simulações determinísticas.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+    private final LongSupplier clock;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param clock Relógio em nanossegundos
+     */
+    public TokenBucket(int capacity, double refillPerSecond, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.clock = clock;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Consome uma ficha se houver.
+     * @return Se a ação é permitida
+     */
+    public boolean tryAcquire() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -5,9 +5,20 @@ public class Protocol {
 
     // Comandos do Cliente para o Servidor
     public static final String MOVE = "MOVE";
+    public static final String MOVE_CELL = "MOVE_CELL";
     public static final String CHAT = "CHAT";
     public static final String FORFEIT = "FORFEIT";
     public static final String END_CHAIN_JUMP = "END_CHAIN_JUMP";
+    public static final String LEGAL_TARGETS = "LEGAL_TARGETS";
+    public static final String CHAT_HISTORY_REQUEST = "CHAT_HISTORY_REQUEST";
+    public static final String QUICK_MATCH = "QUICK_MATCH";
+    public static final String CREATE_ROOM = "CREATE_ROOM";
+    public static final String JOIN_ROOM = "JOIN_ROOM";
+    public static final String LEAVE_ROOM = "LEAVE_ROOM";
+    public static final String LIST_ROOMS = "LIST_ROOMS";
+    public static final String LOGIN = "LOGIN";
+    public static final String LEADERBOARD_REQUEST = "LEADERBOARD_REQUEST";
+    public static final String RESUME = "RESUME";
 
     // Comandos do Servidor para o Cliente
     public static final String GAME_OVER_STATS = "GAME_OVER_STATS";
@@ -25,4 +36,18 @@ public class Protocol {
     public static final String CHAIN_JUMP_OFFER = "CHAIN_JUMP_OFFER";
     public static final String INFO = "INFO";
     public static final String ERROR = "ERROR";
+    public static final String VARIANT = "VARIANT";
+    public static final String TARGETS = "TARGETS";
+    public static final String MOVE_REJECTED = "MOVE_REJECTED";
+    public static final String CHAT_HISTORY = "CHAT_HISTORY";
+    public static final String ROOM_CREATED = "ROOM_CREATED";
+    public static final String ROOM_JOINED = "ROOM_JOINED";
+    public static final String ROOM_LIST = "ROOM_LIST";
+    public static final String PLAYER_STATS = "PLAYER_STATS";
+    public static final String LEADERBOARD = "LEADERBOARD";
+    public static final String RECONNECT = "RECONNECT";
+    public static final String SESSION_RESUMED = "SESSION_RESUMED";
+
+    // Variantes de tabuleiro anunciadas pelo comando VARIANT
+    public static final String VARIANT_STAR = "STAR";
 }
@@ -0,0 +1,98 @@
+package shared;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Contextos TLS do servidor e do cliente. O TLS é opcional e ligado por propriedades de sistema:
+ * {@value #KEYSTORE_PROPERTY} no servidor (chave e certificado) e {@value #TRUSTSTORE_PROPERTY} no cliente
+ * (certificados confiáveis), ambos arquivos PKCS12 com a senha em {@value #PASSWORD_PROPERTY}. Para testes
+ * locais, um certificado autoassinado serve para os dois lados:
+ * <pre>
+ * keytool -genkeypair -alias halma -keyalg EC -keystore halma.p12 -storetype PKCS12 -validity 365 \
+ *     -dname CN=localhost -ext SAN=dns:localhost,ip:127.0.0.1
+ * </pre>
+ * As sessões TLS ficam em cache nos contextos, então uma reconexão com o mesmo contexto é retomada sem a troca de
+ * chaves completa; por isso o cliente usa um único contexto por processo.
+ */
+public final class Tls {
+    public static final String KEYSTORE_PROPERTY = "halma.tls.keystore";
+    public static final String TRUSTSTORE_PROPERTY = "halma.tls.truststore";
+    public static final String PASSWORD_PROPERTY = "halma.tls.password";
+    private static final int SESSION_CACHE_SIZE = 10_000;
+    private static final int SESSION_TIMEOUT_SECONDS = 24 * 60 * 60;
+
+    private static volatile SSLContext clientContext;
+
+    private Tls() {
+    }
+
+    /**
+     * Cria um contexto com as chaves e os certificados confiáveis do mesmo arquivo PKCS12.
+     */
+    public static SSLContext load(Path keyStoreFile, char[] password) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(keyStoreFile.toFile(), password);
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, password);
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        context.getServerSessionContext().setSessionCacheSize(SESSION_CACHE_SIZE);
+        context.getServerSessionContext().setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+        context.getClientSessionContext().setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+        return context;
+    }
+
+    /**
+     * @return O contexto do servidor, ou null se {@value #KEYSTORE_PROPERTY} não estiver definida
+     */
+    public static SSLContext serverContext() throws IOException, GeneralSecurityException {
+        String keyStore = System.getProperty(KEYSTORE_PROPERTY);
+        return keyStore != null ? load(Paths.get(keyStore), password()) : null;
+    }
+
+    /**
+     * Contexto compartilhado pelas conexões do cliente, criado na primeira chamada.
+     * @return O contexto, ou null se {@value #TRUSTSTORE_PROPERTY} não estiver definida
+     */
+    public static SSLContext clientContext() throws IOException, GeneralSecurityException {
+        String trustStore = System.getProperty(TRUSTSTORE_PROPERTY);
+        if (trustStore == null) {
+            return null;
+        }
+        SSLContext context = clientContext;
+        if (context == null) {
+            synchronized (Tls.class) {
+                context = clientContext;
+                if (context == null) {
+                    context = load(Paths.get(trustStore), password());
+                    clientContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Ativa a verificação do nome do servidor no certificado, que o {@link SSLSocket} não faz por padrão.
+     */
+    public static void verifyHostname(SSLSocket socket) {
+        SSLParameters parameters = socket.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        socket.setSSLParameters(parameters);
+    }
+
+    private static char[] password() {
+        return System.getProperty(PASSWORD_PROPERTY, "").toCharArray();
+    }
+}